@@ -0,0 +1,35 @@
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+sitedir = new File( basedir, 'target/site' );
+
+assert new File( sitedir, 'index.html' ).text.contains( 'page index' );
+assert new File( sitedir, 'other.html' ).text.contains( 'page other' );
+
+manifest = new Properties();
+new File( basedir, 'target/site-render-manifest.properties' ).withInputStream { manifest.load( it ) };
+assert manifest.getProperty( 'index.html' ) != null;
+assert manifest.getProperty( 'other.html' ) != null;
+
+// second run: nothing changed
+content = new File( basedir, 'build.log' ).text;
+assert content.contains( 'Skipping 2 unchanged Doxia documents' );
+
+return true;
@@ -0,0 +1,45 @@
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+sitedir = new File( basedir, 'target/site' );
+
+for ( locale in [ 'default', 'fr', 'de' ] )
+{
+    localeDir = ( locale == 'default' ) ? sitedir : new File( sitedir, locale );
+    for ( page in [ 'page1', 'page2' ] )
+    {
+        html = new File( localeDir, page + '.html' ).text;
+        assert html.contains( 'Content for verify.groovy: ' + page + ' in ' + locale + '.' );
+        assert html.contains( '</html>' );
+    }
+    assert new File( localeDir, 'index.html' ).exists();
+    assert new File( localeDir, 'summary.html' ).exists();
+}
+
+// log output is kept in locale order
+content = new File( basedir, 'build.log' ).text;
+defaultLocale = content.indexOf( 'Rendering site for default locale' );
+fr = content.indexOf( "Rendering site for locale 'fr'" );
+de = content.indexOf( "Rendering site for locale 'de'" );
+assert defaultLocale >= 0;
+assert defaultLocale < fr;
+assert fr < de;
+
+return true;
@@ -0,0 +1,37 @@
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+def expected = [ 'velocity.html': 'Content for verify.groovy: velocity page with render-threads.' ]
+(1..5).each {
+  expected[ "apt${it}.html" ] = "Content for verify.groovy: apt page ${it}."
+  expected[ "markdown${it}.html" ] = "Content for verify.groovy: markdown page ${it}."
+  expected[ "xdoc${it}.html" ] = "Content for verify.groovy: xdoc page ${it}."
+}
+
+for ( entry in expected ) {
+  def name = entry.key
+  def marker = entry.value
+  def verifiedFile = new File( basedir, "target/site/$name" )
+  assert verifiedFile.exists() : "$name must have been generated"
+
+  def content = verifiedFile.text
+  assert content.contains( marker ) : "$name must have content from its source"
+  assert content.contains( '</html>' ) : "$name must have been merged into the skin"
+}
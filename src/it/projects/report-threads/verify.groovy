@@ -0,0 +1,38 @@
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+sitedir = new File( basedir, 'target/site' );
+
+assert new File( sitedir, 'dependency-info.html' ).exists();
+assert new File( sitedir, 'index.html' ).exists();
+assert new File( sitedir, 'plugin-management.html' ).exists();
+assert new File( sitedir, 'plugins.html' ).exists();
+assert new File( sitedir, 'project-info.html' ).exists();
+assert new File( sitedir, 'summary.html' ).exists();
+
+// not thread-safe reports are generated once the others are done
+content = new File( basedir, 'build.log' ).text;
+summary = content.indexOf( 'Generating "Summary" report' );
+assert summary > 0;
+assert content.indexOf( 'Generating "Maven Coordinates" report' ) > 0;
+assert content.indexOf( 'Generating "Maven Coordinates" report' ) < summary;
+assert content.indexOf( 'Generating "Plugins" report' ) < summary;
+
+return true;
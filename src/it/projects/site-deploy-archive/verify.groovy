@@ -0,0 +1,32 @@
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+deployed = new File( basedir, 'target/site-deployed' );
+
+assert new File( deployed, 'index.html' ).text.contains( 'page default' );
+assert new File( deployed, 'fr/index.html' ).text.contains( 'page fr' );
+assert new File( deployed, 'css/print.css' ).exists();
+assert !new File( deployed, 'fr/fr' ).exists();
+
+// file: targets are copied file by file, archiving would only add work
+content = new File( basedir, 'build.log' ).text;
+assert !content.contains( 'bytes archive' );
+
+return true;
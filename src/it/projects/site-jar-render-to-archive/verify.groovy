@@ -0,0 +1,43 @@
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.jar.JarFile;
+
+// pages are only rendered into the jar
+sitedir = new File( basedir, 'target/site' );
+assert !new File( sitedir, 'index.html' ).exists();
+assert !new File( sitedir, 'other.html' ).exists();
+assert new File( sitedir, 'css/site.css' ).exists();
+
+jar = new JarFile( new File( basedir, 'target/site-jar-render-to-archive-1.0-SNAPSHOT-site.jar' ) );
+try
+{
+    assert jar.getInputStream( jar.getEntry( 'index.html' ) ).text.contains( 'Content of page index.' );
+    assert jar.getInputStream( jar.getEntry( 'other.html' ) ).text.contains( 'Content of page other.' );
+    assert jar.getEntry( 'css/site.css' ) != null;
+    // rendered pages have the same reproducible timestamp as the files of the output directory
+    assert jar.getEntry( 'index.html' ).getTime() == jar.getEntry( 'css/site.css' ).getTime();
+}
+finally
+{
+    jar.close();
+}
+
+return true;
@@ -0,0 +1,41 @@
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.jar.JarFile;
+
+first = new File( basedir, 'target/first-site.jar' );
+second = new File( basedir, 'target/second-site.jar' );
+
+// the site jar is compressed in parallel: entries and timestamps must not depend on it
+assert first.bytes == second.bytes;
+
+jar = new JarFile( first );
+try
+{
+    assert jar.getEntry( 'index.html' ) != null;
+    assert jar.getEntry( 'other.html' ) != null;
+    assert jar.size() > 10;
+}
+finally
+{
+    jar.close();
+}
+
+return true;
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.testing.SilentLog;
+import org.apache.maven.plugins.site.stubs.SiteComponents;
+import org.apache.maven.plugins.site.stubs.StubMultiPageReport;
+import org.apache.maven.plugins.site.stubs.SyntheticSite;
+import org.apache.maven.reporting.exec.MavenReportExecution;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering of a multi-page report with the Fluido skin: the main page and its sub-pages, each with a large table,
+ * as generated by reports like the dependency or Javadoc reports. The <code>pages</code> counter gives the number
+ * of pages rendered per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ReportRenderingBenchmark {
+    private static final Log LOG = new SilentLog();
+
+    @Param({"10", "100"})
+    public int subPages;
+
+    @Param("200")
+    public int rows;
+
+    private SiteComponents components;
+
+    private File directory;
+
+    private SiteRenderingContext context;
+
+    private StubMultiPageReport report;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        components = new SiteComponents();
+        directory = Files.createTempDirectory("report-rendering").toFile();
+        SyntheticSite site = SyntheticSite.generate(
+                new File(directory, "site"), 10, 50, 1, Collections.singletonList(SiteTool.DEFAULT_LOCALE));
+        context = components.createContext(site, SiteTool.DEFAULT_LOCALE);
+        report = new StubMultiPageReport("stub-report", subPages, rows);
+        report.setReportOutputDirectory(new File(directory, "output"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        components.close();
+        SiteComponents.delete(directory);
+    }
+
+    @Benchmark
+    public String render(PageCounter counter) throws Exception {
+        DocumentRenderingContext docRenderingContext =
+                new DocumentRenderingContext(report.getReportOutputDirectory(), "stub-report", "benchmark");
+        StringWriter writer = new StringWriter();
+        new ReportDocumentRenderer(new MavenReportExecution(report), docRenderingContext, LOG)
+                .renderDocument(writer, components.getSiteRenderer(), context);
+        counter.pages += 1 + subPages;
+        return writer.toString();
+    }
+
+    /**
+     * Number of pages rendered, the main page and the sub-pages.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class PageCounter {
+        public long pages;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            pages = 0;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.plugins.site.stubs.SiteComponents;
+import org.apache.maven.plugins.site.stubs.SyntheticSite;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering of the Doxia documents of a synthetic site with the Fluido skin, as <code>site:site</code> does, for
+ * every locale. Rendered pages are kept in memory to measure rendering rather than disk writes. The
+ * <code>pages</code> counter gives the number of pages rendered per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class SiteRenderingBenchmark {
+    @Param("100")
+    public int pages;
+
+    @Param("50")
+    public int menuItems;
+
+    @Param({"1", "3"})
+    public int locales;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private SiteComponents components;
+
+    private File directory;
+
+    private final List<SiteRenderingContext> contexts = new ArrayList<>();
+
+    private final List<File> outputDirectories = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        components = new SiteComponents();
+        directory = Files.createTempDirectory("site-rendering").toFile();
+        SyntheticSite site = SyntheticSite.generate(
+                new File(directory, "site"), pages, menuItems, 5, SiteComponents.locales(locales));
+        for (Locale locale : site.getLocales()) {
+            contexts.add(components.createContext(site, locale));
+            outputDirectories.add(new File(directory, "output/" + locale));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        components.close();
+        SiteComponents.delete(directory);
+    }
+
+    @Benchmark
+    public int render(PageCounter counter) throws Exception {
+        RenderedPages renderedPages = new RenderedPages();
+        for (int i = 0; i < contexts.size(); i++) {
+            SiteRenderingContext context = contexts.get(i);
+            new ConcurrentSiteRenderer(components.getSiteRenderer(), components.getDoxia(), threads)
+                    .setRenderedPages(renderedPages)
+                    .renderDoxiaDocuments(
+                            components
+                                    .getSiteRenderer()
+                                    .locateDocumentFiles(context)
+                                    .values(),
+                            context,
+                            outputDirectories.get(i));
+        }
+        counter.pages += renderedPages.size();
+        return renderedPages.size();
+    }
+
+    /**
+     * Number of pages rendered.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class PageCounter {
+        public long pages;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            pages = 0;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.run;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.plugins.site.stubs.SiteComponents;
+import org.apache.maven.plugins.site.stubs.SyntheticSite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Handling of <code>site:run</code> page requests by the Doxia filter, cycling through the pages of a synthetic
+ * site, with or without the render cache, and with or without gzip encoding. Run with <code>-t</code> to measure
+ * concurrent requests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class DoxiaFilterBenchmark {
+    private static final FilterChain NO_CHAIN = (request, response) -> {};
+
+    @Param("100")
+    public int pages;
+
+    @Param({"true", "false"})
+    public boolean renderCache;
+
+    @Param("false")
+    public boolean gzip;
+
+    private SiteComponents components;
+
+    private File directory;
+
+    private List<String> outputNames;
+
+    private DoxiaFilter filter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        components = new SiteComponents();
+        directory = Files.createTempDirectory("doxia-filter").toFile();
+        SyntheticSite site = SyntheticSite.generate(
+                new File(directory, "site"), pages, 50, 5, Collections.singletonList(SiteTool.DEFAULT_LOCALE));
+        outputNames = site.getOutputNames();
+
+        SiteRenderingContext context = components.createContext(site, SiteTool.DEFAULT_LOCALE);
+        Map<String, DoxiaBean> i18nDoxiaContexts = new ConcurrentHashMap<>();
+        i18nDoxiaContexts.put(
+                "default", new DoxiaBean(context, components.getSiteRenderer().locateDocumentFiles(context)));
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(DoxiaFilter.OUTPUT_DIRECTORY_KEY, new File(directory, "output"));
+        attributes.put(DoxiaFilter.SITE_RENDERER_KEY, components.getSiteRenderer());
+        attributes.put(DoxiaFilter.I18N_DOXIA_CONTEXTS_KEY, i18nDoxiaContexts);
+        attributes.put(DoxiaFilter.LOCALES_LIST_KEY, site.getLocales());
+        attributes.put(DoxiaFilter.DOXIA_KEY, components.getDoxia());
+        if (renderCache) {
+            attributes.put(DoxiaFilter.RENDER_CACHE_KEY, new RenderCache());
+        }
+
+        ServletContext servletContext = proxy(
+                ServletContext.class, (method, args) -> "getAttribute".equals(method) ? attributes.get(args[0]) : null);
+        FilterConfig filterConfig =
+                proxy(FilterConfig.class, (method, args) -> "getServletContext".equals(method) ? servletContext : null);
+
+        filter = new DoxiaFilter();
+        filter.init(filterConfig);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        filter.destroy();
+        components.close();
+        SiteComponents.delete(directory);
+    }
+
+    @Benchmark
+    public int request(Client client) throws Exception {
+        String path = '/' + outputNames.get(client.next++ % outputNames.size());
+        HttpServletRequest request = proxy(HttpServletRequest.class, (method, args) -> {
+            switch (method) {
+                case "getServletPath":
+                    return path;
+                case "getHeader":
+                    return gzip && "Accept-Encoding".equals(args[0]) ? "gzip" : null;
+                case "getDateHeader":
+                    return -1L;
+                default:
+                    return null;
+            }
+        });
+
+        client.body.reset();
+        filter.doFilter(request, client.response, NO_CHAIN);
+        return client.body.size();
+    }
+
+    /**
+     * A client requesting the pages in turn, with a response writing to memory.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+        int next;
+
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        HttpServletResponse response;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            ServletOutputStream out = new ServletOutputStream() {
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) {
+                    body.write(b, off, len);
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {}
+            };
+            PrintWriter writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            response = proxy(HttpServletResponse.class, (method, args) -> {
+                switch (method) {
+                    case "getOutputStream":
+                        return out;
+                    case "getWriter":
+                        return writer;
+                    default:
+                        return null;
+                }
+            });
+        }
+    }
+
+    /**
+     * Invocation of a method of a proxy, by name.
+     */
+    interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    /**
+     * Create a proxy of a servlet API interface, returning the default value of primitive types when the handler
+     * returns <code>null</code>.
+     */
+    static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(
+                DoxiaFilterBenchmark.class.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+                    Object result = handler.invoke(method.getName(), args);
+                    if (result == null && method.getReturnType().isPrimitive()) {
+                        Class<?> returnType = method.getReturnType();
+                        if (returnType == boolean.class) {
+                            return false;
+                        } else if (returnType == long.class) {
+                            return 0L;
+                        } else if (returnType != void.class) {
+                            return 0;
+                        }
+                    }
+                    return result;
+                }));
+    }
+}
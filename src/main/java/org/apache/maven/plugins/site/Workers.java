@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Worker threads of the plugin, and handling of the failures of the tasks they run.
+ *
+ * @since 4.0.0
+ */
+public final class Workers {
+    private Workers() {
+        // utility class
+    }
+
+    /**
+     * Create a factory of daemon threads named after the given prefix and numbered. Threads get the context class
+     * loader of the calling thread, which is the plugin class loader that Velocity tools and resources are found
+     * with.
+     *
+     * @param prefix the prefix of thread names
+     * @return the thread factory
+     */
+    public static ThreadFactory threadFactory(String prefix) {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + '-' + count.incrementAndGet());
+            thread.setContextClassLoader(contextClassLoader);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Create a fixed pool of threads from {@link #threadFactory(String)}.
+     *
+     * @param prefix the prefix of thread names
+     * @param size the number of threads
+     * @return the executor
+     */
+    public static ExecutorService newFixedThreadPool(String prefix, int size) {
+        return Executors.newFixedThreadPool(size, threadFactory(prefix));
+    }
+
+    /**
+     * Wait for every task, whatever the failures.
+     *
+     * @param tasks the tasks, in submission order
+     * @param done called with the index of each task once it is done, for example to flush its log
+     * @return the failure of the first failing task in submission order, or <code>null</code> if none failed
+     * @throws InterruptedException if interrupted while waiting, the interrupt flag of the thread being set again
+     */
+    public static Throwable awaitAll(List<? extends Future<?>> tasks, IntConsumer done) throws InterruptedException {
+        Throwable failure = null;
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                tasks.get(i).get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw e;
+            } finally {
+                done.accept(i);
+            }
+        }
+        return failure;
+    }
+
+    /**
+     * Rethrow the failure of a task if it is unchecked or of the given type: call once per checked exception type
+     * the caller declares, then wrap what remains.
+     *
+     * @param failure the failure, may be <code>null</code>
+     * @param type the checked exception type to rethrow
+     * @param <X> the checked exception type
+     * @throws X if the failure is of the given type
+     */
+    public static <X extends Exception> void rethrowIf(Throwable failure, Class<X> type) throws X {
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        } else if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (type.isInstance(failure)) {
+            throw type.cast(failure);
+        }
+    }
+}
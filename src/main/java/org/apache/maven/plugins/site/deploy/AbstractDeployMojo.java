@@ -19,10 +19,27 @@
 package org.apache.maven.plugins.site.deploy;
 
 import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.apache.maven.doxia.site.inheritance.URIPathDescriptor;
 import org.apache.maven.doxia.tools.SiteTool;
@@ -31,9 +48,11 @@ import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.DistributionManagement;
 import org.apache.maven.model.Site;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.site.AbstractSiteMojo;
+import org.apache.maven.plugins.site.Workers;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.settings.Proxy;
 import org.apache.maven.settings.Server;
@@ -107,6 +126,56 @@ public abstract class AbstractDeployMojo extends AbstractSiteMojo {
     @Parameter(property = "maven.site.deploy.skip", defaultValue = "false")
     private boolean skipDeploy;
 
+    /**
+     * Whether to only upload files that changed since the previous deploy and remove files that are not part of the
+     * site anymore. The checksums of deployed files are kept on the target, in a <code>.site-manifest.properties</code>
+     * file of the module directory. Removing files requires a <code>file:</code> URL or a wagon able to run commands,
+     * like scp: with other wagons, removed files are only reported.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "maven.site.deploy.differential", defaultValue = "false")
+    private boolean differential;
+
+    /**
+     * Number of parallel uploads. With more than one, files are uploaded one by one by as many workers, each one with
+     * its own wagon connection, instead of uploading whole directories through a single connection. For
+     * <code>file:</code> URLs copied with <code>localCopy</code>, this is the number of directories copied in parallel.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "maven.site.deploy.uploadThreads", defaultValue = "1")
+    private int uploadThreads;
+
+    /**
+     * Whether to copy the site with the file system for <code>file:</code> URLs, instead of going through the file
+     * wagon. Only the files with a different size or last modification time than the file already in the target
+     * directory are copied. Ignored with <code>differential</code>, which relies on checksums instead.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "maven.site.deploy.localCopy", defaultValue = "false")
+    private boolean localCopy;
+
+    /**
+     * Number of times the upload of a file is retried after a transfer failure, when files are uploaded one by one.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "maven.site.deploy.uploadRetries", defaultValue = "2")
+    private int uploadRetries;
+
+    /**
+     * Whether to upload the site as a single compressed archive expanded on the target, instead of file by file.
+     * This requires a wagon able to run commands with <code>unzip</code> available on the target, like scp: with
+     * other wagons, files are uploaded one by one. <code>file:</code> URLs are always copied file by file, since
+     * archiving would only add work.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "maven.site.deploy.archive", defaultValue = "false")
+    private boolean archive;
+
     /**
      * The current user system settings for use in Maven.
      */
@@ -252,6 +321,11 @@ public abstract class AbstractDeployMojo extends AbstractSiteMojo {
     }
 
     private void deploy(final File directory, final Repository repository) throws MojoExecutionException {
+        if (localCopy && "file".equalsIgnoreCase(repository.getProtocol()) && !differential) {
+            copy(directory, repository, getLocales(), getDeployModuleDirectory());
+            return;
+        }
+
         // TODO: work on moving this into the deployer like the other deploy methods
         final Wagon wagon = getWagon(repository);
 
@@ -272,6 +346,27 @@ public abstract class AbstractDeployMojo extends AbstractSiteMojo {
         }
     }
 
+    /**
+     * Copy the site to a local directory with the file system, only copying the files that changed since the
+     * previous copy.
+     */
+    private void copy(
+            final File inputDirectory,
+            final Repository repository,
+            final List<Locale> localesList,
+            final String relativeDir)
+            throws MojoExecutionException {
+        getLog().info("Pushing " + inputDirectory);
+        getLog().info("   >>> to " + repository.getUrl());
+
+        try (LocalCopy localCopy = new LocalCopy(new File(repository.getBasedir()), uploadThreads)) {
+            copyFiles(inputDirectory, localesList, relativeDir, localCopy);
+            getLog().info("Copied " + localCopy.getCopied() + " changed file(s) out of " + localCopy.getFiles());
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error copying site", e);
+        }
+    }
+
     private Wagon getWagon(final Repository repository) throws MojoExecutionException {
         String protocol = repository.getProtocol();
         if (protocol == null) {
@@ -328,50 +423,483 @@ public abstract class AbstractDeployMojo extends AbstractSiteMojo {
             getLog().debug("authenticationInfo with id '" + repository.getId() + "'");
         }
 
+        // some wagons change the repository when connecting: keep a copy for other connections
+        final Repository uploadRepository = new Repository(repository.getId(), repository.getUrl());
+
         try {
-            if (getLog().isDebugEnabled()) {
-                Debug debug = new Debug();
+            connect(wagon, repository, authenticationInfo, proxyInfo);
 
-                wagon.addSessionListener(debug);
+            getLog().info("Pushing " + inputDirectory);
 
-                wagon.addTransferListener(debug);
+            if (differential) {
+                pushDifferential(
+                        collectFiles(inputDirectory, localesList, relativeDir),
+                        repository,
+                        uploadRepository,
+                        wagon,
+                        authenticationInfo,
+                        proxyInfo,
+                        relativeDir);
+                return;
             }
 
-            if (proxyInfo != null) {
-                getLog().debug("connect with proxyInfo");
-                wagon.connect(repository, authenticationInfo, proxyInfo);
-            } else if (authenticationInfo != null) {
-                getLog().debug("connect with authenticationInfo and without proxyInfo");
-                wagon.connect(repository, authenticationInfo);
-            } else {
-                getLog().debug("connect without authenticationInfo and without proxyInfo");
-                wagon.connect(repository);
+            if (archive || uploadThreads > 1) {
+                putFiles(
+                        collectFiles(inputDirectory, localesList, relativeDir),
+                        uploadRepository,
+                        wagon,
+                        authenticationInfo,
+                        proxyInfo);
+                return;
             }
 
-            getLog().info("Pushing " + inputDirectory);
-
             for (Locale locale : localesList) {
                 if (!locale.equals(SiteTool.DEFAULT_LOCALE)) {
                     getLog().info("   >>> to " + appendSlash(repository.getUrl()) + locale + "/" + relativeDir);
 
                     wagon.putDirectory(new File(inputDirectory, locale.toString()), locale + "/" + relativeDir);
                 } else {
-                    // TODO: this also uploads the non-default locales,
-                    // is there a way to exclude directories in wagon?
                     getLog().info("   >>> to " + appendSlash(repository.getUrl()) + relativeDir);
 
-                    wagon.putDirectory(inputDirectory, relativeDir);
+                    putDefaultLocale(wagon, inputDirectory, relativeDir, getLocaleDirectories(localesList));
                 }
             }
         } catch (ResourceDoesNotExistException
                 | TransferFailedException
                 | AuthorizationException
                 | ConnectionException
-                | AuthenticationException e) {
+                | AuthenticationException
+                | IOException e) {
             throw new MojoExecutionException("Error uploading site", e);
         }
     }
 
+    private void connect(
+            final Wagon wagon,
+            final Repository repository,
+            final AuthenticationInfo authenticationInfo,
+            final ProxyInfo proxyInfo)
+            throws ConnectionException, AuthenticationException {
+        if (getLog().isDebugEnabled()) {
+            Debug debug = new Debug();
+
+            wagon.addSessionListener(debug);
+
+            wagon.addTransferListener(debug);
+        }
+
+        if (proxyInfo != null) {
+            getLog().debug("connect with proxyInfo");
+            wagon.connect(repository, authenticationInfo, proxyInfo);
+        } else if (authenticationInfo != null) {
+            getLog().debug("connect with authenticationInfo and without proxyInfo");
+            wagon.connect(repository, authenticationInfo);
+        } else {
+            getLog().debug("connect without authenticationInfo and without proxyInfo");
+            wagon.connect(repository);
+        }
+    }
+
+    /**
+     * Upload the default locale, without the directories of the other locales which are uploaded on their own.
+     * When there are no other locales, the whole input directory is uploaded at once.
+     */
+    private static void putDefaultLocale(
+            final Wagon wagon, final File inputDirectory, final String relativeDir, final Set<String> localeDirectories)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
+        File[] children = inputDirectory.listFiles();
+        if (localeDirectories.isEmpty() || children == null) {
+            wagon.putDirectory(inputDirectory, relativeDir);
+            return;
+        }
+
+        Arrays.sort(children);
+        for (File child : children) {
+            if (child.isDirectory()) {
+                if (!localeDirectories.contains(child.getName())) {
+                    wagon.putDirectory(child, remotePath(relativeDir, child.getName()));
+                }
+            } else {
+                wagon.put(child, remotePath(relativeDir, child.getName()));
+            }
+        }
+    }
+
+    /**
+     * @return the names of the directories of the non-default locales in the site output directory
+     */
+    private static Set<String> getLocaleDirectories(final List<Locale> localesList) {
+        Set<String> localeDirectories = new HashSet<>();
+        for (Locale locale : localesList) {
+            if (!locale.equals(SiteTool.DEFAULT_LOCALE)) {
+                localeDirectories.add(locale.toString());
+            }
+        }
+        return localeDirectories;
+    }
+
+    /**
+     * Upload files in an archive when requested and supported, else one by one, with <code>uploadThreads</code>
+     * workers sharing a queue of files. The first worker uses the given connected wagon, the other ones connect their
+     * own wagon to a copy of the given repository.
+     */
+    private void putFiles(
+            final Map<String, File> files,
+            final Repository repository,
+            final Wagon wagon,
+            final AuthenticationInfo authenticationInfo,
+            final ProxyInfo proxyInfo)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException, IOException,
+                    MojoExecutionException {
+        if (archive && putArchive(files, repository, wagon, getLog())) {
+            return;
+        }
+
+        Queue<Map.Entry<String, File>> queue = new ConcurrentLinkedQueue<>(files.entrySet());
+        int workers = Math.max(1, Math.min(uploadThreads, files.size()));
+        if (workers == 1) {
+            putQueuedFiles(queue, wagon);
+            return;
+        }
+
+        getLog().info("Uploading " + files.size() + " files with " + workers + " connections");
+
+        ExecutorService executor = Workers.newFixedThreadPool("site-upload", workers - 1);
+        try {
+            List<Future<Void>> uploads = new ArrayList<>();
+            for (int i = 1; i < workers; i++) {
+                uploads.add(executor.submit(() -> {
+                    Repository workerRepository = new Repository(repository.getId(), repository.getUrl());
+                    Wagon workerWagon = getWagon(workerRepository);
+                    try {
+                        connect(workerWagon, workerRepository, authenticationInfo, proxyInfo);
+                        putQueuedFiles(queue, workerWagon);
+                    } catch (Exception e) {
+                        // stop the other workers
+                        queue.clear();
+                        throw e;
+                    } finally {
+                        try {
+                            workerWagon.disconnect();
+                        } catch (ConnectionException e) {
+                            getLog().error("Error disconnecting wagon - ignored", e);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            Throwable failure = null;
+            try {
+                putQueuedFiles(queue, wagon);
+            } catch (TransferFailedException | ResourceDoesNotExistException | AuthorizationException e) {
+                failure = e;
+                // stop the other workers
+                queue.clear();
+            }
+
+            Throwable uploadFailure;
+            try {
+                uploadFailure = Workers.awaitAll(uploads, i -> {});
+            } catch (InterruptedException e) {
+                throw new MojoExecutionException("Interrupted while uploading site", e);
+            }
+            if (failure == null) {
+                failure = uploadFailure;
+            }
+
+            Workers.rethrowIf(failure, TransferFailedException.class);
+            Workers.rethrowIf(failure, ResourceDoesNotExistException.class);
+            Workers.rethrowIf(failure, AuthorizationException.class);
+            Workers.rethrowIf(failure, MojoExecutionException.class);
+            if (failure != null) {
+                throw new MojoExecutionException("Error uploading site", failure);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Upload files in a zip archive expanded on the target, when the target is remote and can run commands.
+     *
+     * @return <code>true</code> if the files were uploaded, <code>false</code> if they need to be uploaded one by one
+     */
+    static boolean putArchive(
+            final Map<String, File> files, final Repository repository, final Wagon wagon, final Log log)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException, IOException,
+                    MojoExecutionException {
+        if ("file".equalsIgnoreCase(repository.getProtocol())) {
+            // the file system copies files faster than it would archive and expand them
+            return false;
+        }
+        if (!(wagon instanceof CommandExecutor)) {
+            log.info("Archive deploy is not supported with '" + repository.getProtocol()
+                    + "' protocol: uploading files one by one");
+            return false;
+        }
+        for (String path : files.keySet()) {
+            if (Arrays.asList(path.split("/")).contains("..")) {
+                // archive entries are expanded in the repository base directory only
+                log.info("Archive deploy is not supported outside of the site base directory: "
+                        + "uploading files one by one");
+                return false;
+            }
+        }
+        if (files.isEmpty()) {
+            return true;
+        }
+
+        File archiveFile = Files.createTempFile("site-deploy", ".zip").toFile();
+        try {
+            writeArchive(files, archiveFile);
+            log.info("Uploading " + files.size() + " files in a " + archiveFile.length() + " bytes archive");
+
+            String remoteArchive = appendSlash(repository.getBasedir()) + archiveFile.getName();
+            wagon.put(archiveFile, archiveFile.getName());
+            executeCommand(
+                    (CommandExecutor) wagon,
+                    "unzip -o -qq -d '" + quote(repository.getBasedir()) + "' '" + quote(remoteArchive) + "' && rm -f '"
+                            + quote(remoteArchive) + "'",
+                    "Error expanding site archive");
+        } finally {
+            Files.deleteIfExists(archiveFile.toPath());
+        }
+        return true;
+    }
+
+    private static void writeArchive(final Map<String, File> files, final File archiveFile) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(archiveFile.toPath()))) {
+            for (Map.Entry<String, File> entry : files.entrySet()) {
+                out.putNextEntry(new ZipEntry(entry.getKey()));
+                Files.copy(entry.getValue().toPath(), out);
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static String quote(final String path) {
+        return path.replace("'", "'\\''");
+    }
+
+    private void putQueuedFiles(final Queue<Map.Entry<String, File>> queue, final Wagon wagon)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException {
+        for (Map.Entry<String, File> entry = queue.poll(); entry != null; entry = queue.poll()) {
+            getLog().debug("Uploading " + entry.getKey());
+            for (int attempt = 0; ; attempt++) {
+                try {
+                    wagon.put(entry.getValue(), entry.getKey());
+                    break;
+                } catch (TransferFailedException e) {
+                    if (attempt >= uploadRetries) {
+                        throw e;
+                    }
+                    getLog().warn("Failed to upload " + entry.getKey() + ", retrying: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Upload only the files with a checksum different from the one in the manifest of the previous deploy, then
+     * remove the files that are not part of the site anymore, and finally upload the updated manifest.
+     */
+    private void pushDifferential(
+            final Map<String, File> files,
+            final Repository repository,
+            final Repository uploadRepository,
+            final Wagon wagon,
+            final AuthenticationInfo authenticationInfo,
+            final ProxyInfo proxyInfo,
+            final String relativeDir)
+            throws TransferFailedException, ResourceDoesNotExistException, AuthorizationException, IOException,
+                    MojoExecutionException {
+        String manifestPath = remotePath(relativeDir, DeployManifest.NAME);
+        File manifestFile = Files.createTempFile("site-manifest", ".properties").toFile();
+        try {
+            try {
+                wagon.get(manifestPath, manifestFile);
+            } catch (ResourceDoesNotExistException e) {
+                getLog().info("No deploy manifest found on target: deploying every file");
+                Files.deleteIfExists(manifestFile.toPath());
+            }
+            DeployManifest previous = DeployManifest.load(manifestFile);
+            DeployManifest manifest = DeployManifest.load(manifestFile);
+
+            Map<String, File> changed = new TreeMap<>();
+            for (Map.Entry<String, File> entry : files.entrySet()) {
+                String path = entry.getKey();
+                String checksum = DeployManifest.checksum(entry.getValue());
+                if (!checksum.equals(previous.get(path))) {
+                    changed.put(path, entry.getValue());
+                }
+                manifest.put(path, checksum);
+            }
+            putFiles(changed, uploadRepository, wagon, authenticationInfo, proxyInfo);
+            int uploaded = changed.size();
+
+            List<String> removed = new ArrayList<>();
+            for (String path : previous.paths()) {
+                if (!files.containsKey(path)) {
+                    removed.add(path);
+                }
+            }
+            int deleted = 0;
+            if (remove(wagon, repository, removed)) {
+                for (String path : removed) {
+                    manifest.remove(path);
+                }
+                deleted = removed.size();
+            } else {
+                // kept in the manifest, to be removed by a later deploy
+                getLog().warn(removed.size() + " file(s) not part of the site anymore cannot be removed with '"
+                        + repository.getProtocol() + "' protocol, please remove them manually: " + removed);
+            }
+
+            getLog().info("Uploaded " + uploaded + " changed file(s) out of " + files.size() + ", removed " + deleted
+                    + " file(s)");
+
+            manifest.store(manifestFile);
+            wagon.put(manifestFile, manifestPath);
+        } finally {
+            Files.deleteIfExists(manifestFile.toPath());
+        }
+    }
+
+    /**
+     * Collect the files to deploy, by path on the target, the same way as the default locale and every other locale
+     * directory are uploaded: each file is collected once, the directories of the non-default locales being excluded
+     * from the default locale.
+     */
+    static Map<String, File> collectFiles(
+            final File inputDirectory, final List<Locale> localesList, final String relativeDir) throws IOException {
+        Set<String> localeDirectories = getLocaleDirectories(localesList);
+        Map<String, File> files = new TreeMap<>();
+        for (Locale locale : localesList) {
+            if (!locale.equals(SiteTool.DEFAULT_LOCALE)) {
+                collectFiles(
+                        new File(inputDirectory, locale.toString()),
+                        locale + "/" + relativeDir,
+                        Collections.emptySet(),
+                        files);
+            } else {
+                collectFiles(inputDirectory, relativeDir, localeDirectories, files);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Copy the files of the default locale and every other locale directory the same way as
+     * {@link #collectFiles(File, List, String)} collects them, waiting for the end of the copies.
+     */
+    static void copyFiles(
+            final File inputDirectory,
+            final List<Locale> localesList,
+            final String relativeDir,
+            final LocalCopy localCopy)
+            throws IOException {
+        for (Locale locale : localesList) {
+            if (!locale.equals(SiteTool.DEFAULT_LOCALE)) {
+                localCopy.copy(
+                        new File(inputDirectory, locale.toString()),
+                        locale + "/" + relativeDir,
+                        Collections.emptySet());
+            } else {
+                localCopy.copy(inputDirectory, relativeDir, getLocaleDirectories(localesList));
+            }
+        }
+        localCopy.await();
+    }
+
+    private static void collectFiles(
+            final File directory,
+            final String targetDir,
+            final Set<String> excludedDirectories,
+            final Map<String, File> files)
+            throws IOException {
+        if (!directory.isDirectory()) {
+            return;
+        }
+        Path base = directory.toPath();
+        try (Stream<Path> paths = Files.walk(base)) {
+            paths.filter(Files::isRegularFile)
+                    .filter(path -> !isExcluded(base.relativize(path), excludedDirectories))
+                    .forEach(path -> files.put(
+                            remotePath(
+                                    targetDir, base.relativize(path).toString().replace('\\', '/')),
+                            path.toFile()));
+        }
+    }
+
+    private static boolean isExcluded(final Path relativePath, final Set<String> excludedDirectories) {
+        return relativePath.getNameCount() > 1
+                && excludedDirectories.contains(relativePath.getName(0).toString());
+    }
+
+    /**
+     * Join a directory and a path on the target, without the <code>./</code> of the directory of the top site.
+     */
+    private static String remotePath(final String directory, final String path) {
+        String dir = directory.replace("/./", "/");
+        if (dir.equals(".") || dir.equals("./")) {
+            dir = "";
+        } else if (dir.endsWith("/.")) {
+            dir = dir.substring(0, dir.length() - 1);
+        }
+        return dir.isEmpty() ? path : appendSlash(dir) + path;
+    }
+
+    /**
+     * Remove files from the target, when supported by the wagon.
+     *
+     * @return <code>true</code> if the files were removed
+     */
+    private static boolean remove(final Wagon wagon, final Repository repository, final List<String> paths)
+            throws IOException, MojoExecutionException {
+        if (paths.isEmpty()) {
+            return true;
+        }
+
+        if ("file".equalsIgnoreCase(repository.getProtocol())) {
+            for (String path : paths) {
+                Files.deleteIfExists(new File(repository.getBasedir(), path).toPath());
+            }
+            return true;
+        }
+
+        if (wagon instanceof CommandExecutor) {
+            CommandExecutor exec = (CommandExecutor) wagon;
+            StringBuilder command = new StringBuilder("rm -f");
+            for (String path : paths) {
+                command.append(" '")
+                        .append(quote(appendSlash(repository.getBasedir()) + path))
+                        .append('\'');
+                // CHECKSTYLE_OFF: MagicNumber
+                if (command.length() > 8000) {
+                    // CHECKSTYLE_ON: MagicNumber
+                    executeCommand(exec, command.toString(), "Error removing files from site");
+                    command = new StringBuilder("rm -f");
+                }
+            }
+            if (command.length() > "rm -f".length()) {
+                executeCommand(exec, command.toString(), "Error removing files from site");
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+    private static void executeCommand(final CommandExecutor exec, final String command, final String error)
+            throws MojoExecutionException {
+        try {
+            exec.executeCommand(command);
+        } catch (CommandExecutionException e) {
+            throw new MojoExecutionException(error, e);
+        }
+    }
+
     private static void chmod(
             final Wagon wagon, final Repository repository, final String chmodOptions, final String chmodMode)
             throws MojoExecutionException {
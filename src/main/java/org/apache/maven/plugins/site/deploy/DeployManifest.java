@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.maven.plugins.site.Digests;
+
+/**
+ * Manifest of deployed site files, recording the checksum of each file by its path on the deploy target, relative
+ * to the repository base directory.
+ *
+ * @since 4.0.0
+ */
+class DeployManifest {
+    /**
+     * Name of the manifest file, stored on the deploy target in the module directory.
+     */
+    static final String NAME = ".site-manifest.properties";
+
+    private final Properties checksums = new Properties();
+
+    /**
+     * Load a manifest.
+     *
+     * @param file the manifest file, which may not exist
+     * @return the manifest, empty if the file does not exist or cannot be read
+     */
+    static DeployManifest load(File file) {
+        DeployManifest manifest = new DeployManifest();
+        if (file.isFile()) {
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                manifest.checksums.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                // corrupted manifest: every file will be deployed again
+                manifest.checksums.clear();
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Compute the checksum of a file.
+     *
+     * @param file the file
+     * @return the SHA-256 checksum of the file content, in hexadecimal
+     * @throws IOException if the file cannot be read
+     */
+    static String checksum(File file) throws IOException {
+        return Digests.sha256(file);
+    }
+
+    String get(String path) {
+        return checksums.getProperty(path);
+    }
+
+    void put(String path, String checksum) {
+        checksums.setProperty(path, checksum);
+    }
+
+    void remove(String path) {
+        checksums.remove(path);
+    }
+
+    /**
+     * @return the paths of the files in the manifest, sorted
+     */
+    Set<String> paths() {
+        return new TreeSet<>(checksums.stringPropertyNames());
+    }
+
+    /**
+     * Store the manifest.
+     *
+     * @param file the manifest file
+     * @throws IOException if the manifest cannot be written
+     */
+    void store(File file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            checksums.store(out, "maven-site-plugin deploy manifest");
+        }
+    }
+}
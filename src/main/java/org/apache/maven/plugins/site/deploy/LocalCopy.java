@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugins.site.Workers;
+
+/**
+ * Copy of site directories to a local directory with the file system, without going through a wagon. Files with the
+ * same size and last modification time as the file already in the target directory are not copied again, the last
+ * modification time of the source files being kept on the copies.
+ * <p>
+ * With more than one thread, directories are walked in parallel: each directory is listed by its own task, which
+ * copies its files and submits a task for each of its sub-directories.
+ * </p>
+ * <p>
+ * Links to directories are followed, except links back to a directory being walked.
+ * </p>
+ *
+ * @since 4.0.0
+ */
+class LocalCopy implements Closeable {
+    private final Path targetDirectory;
+
+    private final ExecutorService executor;
+
+    private final Queue<Future<Void>> tasks = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger files = new AtomicInteger();
+
+    private final AtomicInteger copied = new AtomicInteger();
+
+    private volatile boolean failed;
+
+    /**
+     * @param targetDirectory the target directory
+     * @param threads the number of directories walked and copied in parallel
+     */
+    LocalCopy(File targetDirectory, int threads) {
+        this.targetDirectory = targetDirectory.toPath();
+        this.executor = threads > 1 ? Workers.newFixedThreadPool("site-copy", threads) : null;
+    }
+
+    /**
+     * Copy the files of a directory and its sub-directories. With more than one thread, the copy is only started:
+     * call {@link #await()} to wait for its end.
+     *
+     * @param directory the directory to copy, ignored if it does not exist
+     * @param targetDir the path of the copy, relative to the target directory
+     * @param excludedDirectories the names of the sub-directories of the directory not to copy
+     * @throws IOException if a file cannot be copied
+     */
+    void copy(File directory, String targetDir, Set<String> excludedDirectories) throws IOException {
+        if (!directory.isDirectory()) {
+            return;
+        }
+        Path base = directory.toPath();
+        Path target = this.targetDirectory.resolve(targetDir.isEmpty() ? "." : targetDir);
+        if (executor == null) {
+            copyDirectory(base, target, excludedDirectories, Collections.emptySet());
+        } else {
+            submit(base, target, excludedDirectories, Collections.emptySet());
+        }
+    }
+
+    /**
+     * Wait for the end of the copies.
+     *
+     * @throws IOException if a file could not be copied
+     */
+    void await() throws IOException {
+        Throwable failure = null;
+        try {
+            // tasks of sub-directories are submitted before the task of their parent ends
+            for (List<Future<Void>> batch = drain(); !batch.isEmpty(); batch = drain()) {
+                Throwable batchFailure = Workers.awaitAll(batch, i -> {});
+                if (failure == null) {
+                    failure = batchFailure;
+                }
+            }
+        } catch (InterruptedException e) {
+            throw new IOException("Interrupted while copying site", e);
+        }
+        Workers.rethrowIf(failure, IOException.class);
+        if (failure != null) {
+            throw new IOException(failure);
+        }
+    }
+
+    /**
+     * @return the number of files found in the copied directories
+     */
+    int getFiles() {
+        return files.get();
+    }
+
+    /**
+     * @return the number of files actually copied, since they changed
+     */
+    int getCopied() {
+        return copied.get();
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Future<Void>> drain() {
+        List<Future<Void>> batch = new ArrayList<>();
+        for (Future<Void> task = tasks.poll(); task != null; task = tasks.poll()) {
+            batch.add(task);
+        }
+        return batch;
+    }
+
+    private void submit(Path directory, Path target, Set<String> excludedDirectories, Set<Path> ancestors) {
+        tasks.add(executor.submit(() -> {
+            if (!failed) {
+                try {
+                    copyDirectory(directory, target, excludedDirectories, ancestors);
+                } catch (IOException | RuntimeException e) {
+                    // stop walking the other directories
+                    failed = true;
+                    throw e;
+                }
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * @param ancestors the real paths of the directories walked down to this one, to not follow a link back to one of
+     * them forever
+     */
+    private void copyDirectory(Path directory, Path target, Set<String> excludedDirectories, Set<Path> ancestors)
+            throws IOException {
+        Set<Path> path = new HashSet<>(ancestors);
+        if (!path.add(directory.toRealPath())) {
+            // a link to one of its parents: the directory is already being copied
+            return;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                // links are followed, as when files are listed to be put with a wagon
+                if (Files.isDirectory(entry)) {
+                    if (excludedDirectories.contains(name)) {
+                        continue;
+                    }
+                    if (executor == null) {
+                        copyDirectory(entry, target.resolve(name), Collections.emptySet(), path);
+                    } else {
+                        submit(entry, target.resolve(name), Collections.emptySet(), path);
+                    }
+                } else if (Files.isRegularFile(entry)) {
+                    files.incrementAndGet();
+                    copyFile(entry, target.resolve(name).normalize());
+                }
+            }
+        }
+    }
+
+    private void copyFile(Path source, Path target) throws IOException {
+        if (Files.isRegularFile(target)
+                && Files.size(target) == Files.size(source)
+                && Files.getLastModifiedTime(target).toMillis()
+                        == Files.getLastModifiedTime(source).toMillis()) {
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        // the file system copies the content natively, and the last modification time is kept for the next copy
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+        copied.incrementAndGet();
+    }
+}
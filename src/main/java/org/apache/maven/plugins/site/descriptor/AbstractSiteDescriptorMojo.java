@@ -90,12 +90,16 @@ public abstract class AbstractSiteDescriptorMojo extends AbstractSiteMojo {
     }
 
     protected SiteModel prepareSiteModel(Locale locale) throws MojoExecutionException {
-        SiteModel siteModel;
-        try {
-            siteModel = siteTool.getSiteModel(
-                    siteDirectory, locale, project, reactorProjects, repoSession, remoteProjectRepositories);
-        } catch (SiteToolException e) {
-            throw new MojoExecutionException("Failed to obtain site model", e);
+        SiteModelCache siteModelCache = SiteModelCache.of(repoSession);
+        SiteModel siteModel = siteModelCache.get(siteTool, project, siteDirectory, locale);
+        if (siteModel == null) {
+            try {
+                siteModel = siteTool.getSiteModel(
+                        siteDirectory, locale, project, reactorProjects, repoSession, remoteProjectRepositories);
+            } catch (SiteToolException e) {
+                throw new MojoExecutionException("Failed to obtain site model", e);
+            }
+            siteModelCache.put(siteTool, project, siteDirectory, locale, siteModel);
         }
 
         if (relativizeSiteLinks) {
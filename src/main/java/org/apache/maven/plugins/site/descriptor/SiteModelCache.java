@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.descriptor;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+
+/**
+ * Cache of inherited site models, shared by all site mojo executions of a build through the repository session,
+ * so that the site model of a project is computed once per locale whatever the number of site goals run on it.
+ * <p>
+ * Entries are keyed by project id, locale and the site descriptors <code>SiteTool</code> reads for the project and
+ * each of its parents, with their last modification time, and only copies of the cached site models are ever
+ * returned. Parent site directories are located the way <code>DefaultSiteTool.getSiteModel</code> does, with the
+ * same path relative to the project base directory as the site directory of the child; parents without base
+ * directory are resolved from the repository and are identified by their coordinates.
+ * </p>
+ * <p>
+ * Plugins loaded in different class realms, for example other versions of this plugin, see each other's cache as a
+ * foreign object: each execution then gets its own empty cache.
+ * </p>
+ *
+ * @since 4.0.0
+ */
+class SiteModelCache {
+    private static final String KEY = SiteModelCache.class.getName();
+
+    private final Map<String, SiteModel> siteModels = new ConcurrentHashMap<>();
+
+    /**
+     * Get the site model cache of a repository session, creating it if necessary.
+     *
+     * @param repoSession the repository session
+     * @return the site model cache of the session, or a new one not shared when the session holds the cache of
+     *         another class realm
+     */
+    static SiteModelCache of(RepositorySystemSession repoSession) {
+        SessionData data = repoSession.getData();
+        Object cache = data.get(KEY);
+        while (cache == null) {
+            data.set(KEY, null, new SiteModelCache());
+            cache = data.get(KEY);
+        }
+        return cache instanceof SiteModelCache ? (SiteModelCache) cache : new SiteModelCache();
+    }
+
+    /**
+     * @return a copy of the cached site model, or <code>null</code> if there is none for these inputs
+     */
+    SiteModel get(SiteTool siteTool, MavenProject project, File siteDirectory, Locale locale) {
+        SiteModel siteModel = siteModels.get(key(siteTool, project, siteDirectory, locale));
+        return siteModel == null ? null : siteModel.clone();
+    }
+
+    void put(SiteTool siteTool, MavenProject project, File siteDirectory, Locale locale, SiteModel siteModel) {
+        siteModels.put(key(siteTool, project, siteDirectory, locale), siteModel.clone());
+    }
+
+    private static String key(SiteTool siteTool, MavenProject project, File siteDirectory, Locale locale) {
+        StringBuilder key = new StringBuilder(project.getId()).append('|').append(locale);
+
+        File siteDescriptor = siteTool.getSiteDescriptor(siteDirectory, locale);
+        appendDescriptor(key, siteDescriptor);
+
+        // site directory path relative to the base directory, used for every parent built in the same reactor
+        Path siteRelativePath = project.getBasedir()
+                .getAbsoluteFile()
+                .toPath()
+                .relativize(siteDescriptor.getAbsoluteFile().getParentFile().toPath());
+        for (MavenProject parent = project.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent.getBasedir() == null) {
+                // site descriptors of parents from the repository are resolved by coordinates
+                key.append('|').append(parent.getId());
+                break;
+            }
+            File parentSiteDirectory =
+                    parent.getBasedir().toPath().resolve(siteRelativePath).toFile();
+            appendDescriptor(key, siteTool.getSiteDescriptor(parentSiteDirectory, locale));
+        }
+        return key.toString();
+    }
+
+    private static void appendDescriptor(StringBuilder key, File siteDescriptor) {
+        // last modification time is 0 when the file does not exist
+        key.append('|').append(siteDescriptor.getAbsolutePath()).append(':').append(siteDescriptor.lastModified());
+    }
+}
@@ -32,6 +32,7 @@ import java.util.Map;
 
 import org.apache.maven.archiver.MavenArchiver;
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.doxia.parser.module.ParserModuleManager;
 import org.apache.maven.doxia.site.Menu;
 import org.apache.maven.doxia.site.MenuItem;
 import org.apache.maven.doxia.site.SiteModel;
@@ -177,13 +178,30 @@ public abstract class AbstractSiteRenderingMojo extends AbstractSiteDescriptorMo
 
     protected final MavenReportExecutor mavenReportExecutor;
 
+    /**
+     * Doxia parser modules, giving the source directories and extensions of Doxia documents.
+     */
+    protected final ParserModuleManager parserModuleManager;
+
+    /**
+     * Reports that can be generated, built once per mojo execution and shared by all locales.
+     */
+    private List<MavenReportExecution> reportExecutions;
+
+    /**
+     * Timings of the current execution, disabled unless a subclass enables them.
+     */
+    Timings phaseTimings = Timings.DISABLED;
+
     protected AbstractSiteRenderingMojo(
             SiteModelInheritanceAssembler assembler,
             SiteRenderer siteRenderer,
-            MavenReportExecutor mavenReportExecutor) {
+            MavenReportExecutor mavenReportExecutor,
+            ParserModuleManager parserModuleManager) {
         super(assembler);
         this.siteRenderer = siteRenderer;
         this.mavenReportExecutor = mavenReportExecutor;
+        this.parserModuleManager = parserModuleManager;
     }
 
     /**
@@ -221,6 +239,20 @@ public abstract class AbstractSiteRenderingMojo extends AbstractSiteDescriptorMo
     }
 
     protected List<MavenReportExecution> getReports(File outputDirectory) throws MojoExecutionException {
+        if (reportExecutions == null) {
+            try (Timings.Timer timer = phaseTimings.start("reports", "build")) {
+                reportExecutions = buildReports(outputDirectory);
+            }
+        } else {
+            // reports are shared by all locales: only rebind their output directory
+            for (MavenReportExecution exec : reportExecutions) {
+                exec.getMavenReport().setReportOutputDirectory(outputDirectory);
+            }
+        }
+        return reportExecutions;
+    }
+
+    private List<MavenReportExecution> buildReports(File outputDirectory) throws MojoExecutionException {
         MavenReportExecutorRequest mavenReportExecutorRequest = new MavenReportExecutorRequest();
         mavenReportExecutorRequest.setMavenSession(mavenSession);
         mavenReportExecutorRequest.setExecutionId(mojoExecution.getExecutionId());
@@ -278,7 +310,10 @@ public abstract class AbstractSiteRenderingMojo extends AbstractSiteDescriptorMo
 
     protected SiteRenderingContext createSiteRenderingContext(Locale locale)
             throws MojoExecutionException, IOException, MojoFailureException {
-        SiteModel siteModel = prepareSiteModel(locale);
+        SiteModel siteModel;
+        try (Timings.Timer timer = phaseTimings.start("site-model", Timings.name(locale))) {
+            siteModel = prepareSiteModel(locale);
+        }
         Map<String, Object> templateProperties = new HashMap<>();
         templateProperties.put("project", project);
         templateProperties.put("inputEncoding", getInputEncoding());
@@ -295,9 +330,14 @@ public abstract class AbstractSiteRenderingMojo extends AbstractSiteDescriptorMo
         }
 
         SiteRenderingContext context;
-        try {
-            Artifact skinArtifact =
-                    siteTool.getSkinArtifactFromRepository(repoSession, remoteProjectRepositories, siteModel.getSkin());
+        try (Timings.Timer timer = phaseTimings.start("skin", Timings.name(locale))) {
+            SkinCache skinCache = SkinCache.of(repoSession);
+            Artifact skinArtifact = skinCache.getArtifact(siteModel.getSkin());
+            if (skinArtifact == null) {
+                skinArtifact = siteTool.getSkinArtifactFromRepository(
+                        repoSession, remoteProjectRepositories, siteModel.getSkin());
+                skinCache.putArtifact(siteModel.getSkin(), skinArtifact);
+            }
 
             getLog().info(buffer().a("Rendering content with ")
                     .strong(skinArtifact.getId() + " skin")
@@ -396,6 +436,17 @@ public abstract class AbstractSiteRenderingMojo extends AbstractSiteDescriptorMo
         return reportsByOutputName;
     }
 
+    /**
+     * Whether Doxia documents are looked up in their directory when first accessed, instead of scanning the site
+     * directories when documents are located: clashing documents are then only reported when accessed.
+     *
+     * @return <code>false</code> to scan the site directories when documents are located
+     * @since 4.0.0
+     */
+    protected boolean isDocumentLookupDeferred() {
+        return false;
+    }
+
     /**
      * Go through the collection of reports and put each report into a list for the appropriate category. The list is
      * put into a map keyed by the name of the category.
@@ -422,6 +473,7 @@ public abstract class AbstractSiteRenderingMojo extends AbstractSiteDescriptorMo
      * <li>reports,</li>
      * <li>"Project Information" and "Project Reports" category summaries.</li>
      * </ul>
+     * Renderers of Doxia documents are only created when first accessed, see {@link DocumentIndex}.
      *
      * @param context the site context
      * @param reports the documents
@@ -434,7 +486,10 @@ public abstract class AbstractSiteRenderingMojo extends AbstractSiteDescriptorMo
     protected Map<String, DocumentRenderer> locateDocuments(
             SiteRenderingContext context, List<MavenReportExecution> reports, Locale locale)
             throws IOException, RendererException {
-        Map<String, DocumentRenderer> documents = siteRenderer.locateDocumentFiles(context);
+        DocumentIndex documents = new DocumentIndex(parserModuleManager.getParserModules(), context, getLog());
+        if (!isDocumentLookupDeferred()) {
+            documents.scan();
+        }
 
         Map<String, MavenReport> reportsByOutputName = locateReports(reports, documents, locale);
 
@@ -519,6 +574,20 @@ public abstract class AbstractSiteRenderingMojo extends AbstractSiteDescriptorMo
         return documents;
     }
 
+    /**
+     * Locate the documents again after site sources changed, with the same site context and reports: only the
+     * directories of the changed files are listed again.
+     *
+     * @param documents the documents returned by {@link #locateDocuments}
+     * @param changedFiles the files created, modified or deleted in the site directories, with their absolute paths
+     * @return the documents and their renderers
+     * @since 4.0.0
+     */
+    protected Map<String, DocumentRenderer> refreshDocuments(
+            Map<String, DocumentRenderer> documents, Collection<File> changedFiles) {
+        return ((DocumentIndex) documents).refresh(changedFiles);
+    }
+
     protected void populateReportItems(
             SiteModel siteModel, Locale locale, Map<String, MavenReport> reportsByOutputName) {
         for (Menu menu : siteModel.getMenus()) {
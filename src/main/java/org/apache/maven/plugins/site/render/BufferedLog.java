@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Log keeping messages in memory until they are flushed to the target log, used to keep the output of documents
+ * rendered concurrently in document order. Logs created with {@link #to(Log)} share the same buffer, so that the
+ * messages of a report and of the plugin about it are flushed together, in the order they were logged.
+ *
+ * @since 4.0.0
+ */
+class BufferedLog implements Log {
+    private enum Level {
+        DEBUG,
+        INFO,
+        WARN,
+        ERROR
+    }
+
+    private static class Entry {
+        private final Log target;
+
+        private final Level level;
+
+        private final CharSequence content;
+
+        private final Throwable error;
+
+        Entry(Log target, Level level, CharSequence content, Throwable error) {
+            this.target = target;
+            this.level = level;
+            this.content = content;
+            this.error = error;
+        }
+    }
+
+    private final Log target;
+
+    private final List<Entry> entries;
+
+    BufferedLog(Log target) {
+        this(target, new ArrayList<>());
+    }
+
+    private BufferedLog(Log target, List<Entry> entries) {
+        this.target = target;
+        this.entries = entries;
+    }
+
+    /**
+     * Create a log adding to the same buffer, whose messages are sent to another target log on flush.
+     *
+     * @param target the target log of the messages
+     * @return the log
+     */
+    BufferedLog to(Log target) {
+        if (this.target instanceof BufferedLog) {
+            // nested buffers: the messages must go through the outer buffer too
+            return new BufferedLog(((BufferedLog) this.target).to(target), entries);
+        }
+        return new BufferedLog(target, entries);
+    }
+
+    /**
+     * Send the buffered messages to their target log, and forget them.
+     */
+    void flush() {
+        synchronized (entries) {
+            for (Entry entry : entries) {
+                switch (entry.level) {
+                    case DEBUG:
+                        entry.target.debug(entry.content, entry.error);
+                        break;
+                    case INFO:
+                        entry.target.info(entry.content, entry.error);
+                        break;
+                    case WARN:
+                        entry.target.warn(entry.content, entry.error);
+                        break;
+                    default:
+                        entry.target.error(entry.content, entry.error);
+                }
+            }
+            entries.clear();
+        }
+    }
+
+    private void add(Level level, CharSequence content, Throwable error) {
+        synchronized (entries) {
+            entries.add(new Entry(target, level, content == null ? "" : content.toString(), error));
+        }
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return target.isDebugEnabled();
+    }
+
+    @Override
+    public void debug(CharSequence content) {
+        add(Level.DEBUG, content, null);
+    }
+
+    @Override
+    public void debug(CharSequence content, Throwable error) {
+        add(Level.DEBUG, content, error);
+    }
+
+    @Override
+    public void debug(Throwable error) {
+        add(Level.DEBUG, null, error);
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return target.isInfoEnabled();
+    }
+
+    @Override
+    public void info(CharSequence content) {
+        add(Level.INFO, content, null);
+    }
+
+    @Override
+    public void info(CharSequence content, Throwable error) {
+        add(Level.INFO, content, error);
+    }
+
+    @Override
+    public void info(Throwable error) {
+        add(Level.INFO, null, error);
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return target.isWarnEnabled();
+    }
+
+    @Override
+    public void warn(CharSequence content) {
+        add(Level.WARN, content, null);
+    }
+
+    @Override
+    public void warn(CharSequence content, Throwable error) {
+        add(Level.WARN, content, error);
+    }
+
+    @Override
+    public void warn(Throwable error) {
+        add(Level.WARN, null, error);
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return target.isErrorEnabled();
+    }
+
+    @Override
+    public void error(CharSequence content) {
+        add(Level.ERROR, content, null);
+    }
+
+    @Override
+    public void error(CharSequence content, Throwable error) {
+        add(Level.ERROR, content, error);
+    }
+
+    @Override
+    public void error(Throwable error) {
+        add(Level.ERROR, null, error);
+    }
+}
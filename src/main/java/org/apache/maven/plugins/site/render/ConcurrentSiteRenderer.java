@@ -0,0 +1,450 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.apache.maven.doxia.Doxia;
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.parser.manager.ParserNotFoundException;
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
+import org.apache.maven.doxia.siterenderer.ParserConfigurator;
+import org.apache.maven.doxia.siterenderer.RendererException;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.doxia.siterenderer.sink.SiteRendererSink;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.site.Workers;
+import org.codehaus.plexus.util.xml.XmlStreamReader;
+
+/**
+ * Renders documents with a pool of worker threads.
+ * <p>
+ * Doxia parsers and macros are shared components that keep their parsing state in fields, so Doxia sources are
+ * parsed one after the other by the calling thread. Merging each parsed document into the skin template and writing
+ * the result, which is where most of the time goes, is handed to the workers, each document with its own sink and
+ * writer. Documents that need Velocity processing or validation are rendered as a whole by the calling thread.
+ * </p>
+ * <p>
+ * Reports are independent from each other: each one is generated and rendered as a whole by a worker.
+ * </p>
+ * <p>
+ * Failures are always reported for the first failing document in the order of the given collection, whatever the
+ * thread that rendered it.
+ * </p>
+ *
+ * @since 4.0.0
+ */
+public class ConcurrentSiteRenderer {
+    /**
+     * Lock held while parsing when renderers are used by concurrent callers, since they all share the same parsers.
+     */
+    private static final Object PARSER_LOCK = new Object();
+
+    private final SiteRenderer siteRenderer;
+
+    private final Doxia doxia;
+
+    private final int threads;
+
+    private final boolean concurrentCallers;
+
+    private RenderedPages renderedPages;
+
+    private Timings timings = Timings.DISABLED;
+
+    public ConcurrentSiteRenderer(SiteRenderer siteRenderer, Doxia doxia, int threads) {
+        this(siteRenderer, doxia, threads, false);
+    }
+
+    /**
+     * @param siteRenderer the site renderer
+     * @param doxia the Doxia parsers
+     * @param threads the number of worker threads
+     * @param concurrentCallers <code>true</code> if other renderers may render Doxia documents at the same time,
+     *            for example for other locales: parsing is then done one document at a time across all of them
+     */
+    public ConcurrentSiteRenderer(SiteRenderer siteRenderer, Doxia doxia, int threads, boolean concurrentCallers) {
+        this.siteRenderer = siteRenderer;
+        this.doxia = doxia;
+        this.threads = threads;
+        this.concurrentCallers = concurrentCallers;
+    }
+
+    /**
+     * Leave Doxia documents to be rendered while an archive is written instead of writing them to the output
+     * directory. Documents processed by Velocity or validated are still written to the output directory.
+     *
+     * @param renderedPages the pages to render, or <code>null</code> to write every document
+     * @return this renderer
+     */
+    ConcurrentSiteRenderer setRenderedPages(RenderedPages renderedPages) {
+        this.renderedPages = renderedPages;
+        return this;
+    }
+
+    /**
+     * Measure the rendering of each document, and the parsing and merging of Doxia documents.
+     *
+     * @param timings the timings to record to
+     * @return this renderer
+     */
+    ConcurrentSiteRenderer setTimings(Timings timings) {
+        this.timings = timings;
+        return this;
+    }
+
+    /**
+     * Render Doxia documents, with the same up-to-date checks as {@link SiteRenderer#render}.
+     *
+     * @param documents the documents to render
+     * @param context the site rendering context
+     * @param outputDirectory the output directory
+     * @throws RendererException if a document fails to render
+     * @throws IOException if a document cannot be written
+     */
+    public void renderDoxiaDocuments(
+            Collection<DocumentRenderer> documents, SiteRenderingContext context, File outputDirectory)
+            throws RendererException, IOException {
+        if (renderedPages != null) {
+            deferDoxiaDocuments(documents, context, outputDirectory);
+            return;
+        }
+
+        if (documents.size() <= 1 || (threads <= 1 && !concurrentCallers)) {
+            renderWithParsers(documents, context, outputDirectory);
+            return;
+        }
+
+        int workers = Math.max(1, Math.min(threads, documents.size()));
+        ExecutorService executor = Workers.newFixedThreadPool("site-render", workers);
+        // bound the number of parsed documents waiting for a worker
+        Semaphore pending = new Semaphore(2 * workers);
+        List<Future<Void>> merges = new ArrayList<>(documents.size());
+        try {
+            for (DocumentRenderer docRenderer : documents) {
+                File outputFile = new File(outputDirectory, docRenderer.getOutputPath());
+
+                if (!isModified(docRenderer, context, outputFile)) {
+                    continue;
+                }
+
+                DocumentRenderingContext docRenderingContext = docRenderer.getRenderingContext();
+                if (!(docRenderer instanceof DoxiaDocumentRenderer)
+                        || docRenderingContext.getAttribute("velocity") != null
+                        || context.isValidate()) {
+                    try {
+                        renderWithParsers(Collections.singletonList(docRenderer), context, outputDirectory);
+                    } catch (RendererException | IOException | RuntimeException e) {
+                        awaitAll(merges);
+                        throw e;
+                    }
+                    continue;
+                }
+
+                SiteRendererSink sink;
+                try (Timings.Timer timer = timings.start("parse", docRenderer, outputDirectory)) {
+                    sink = parse(docRenderingContext, context);
+                } catch (RendererException e) {
+                    awaitAll(merges);
+                    throw e;
+                }
+
+                pending.acquireUninterruptibly();
+                merges.add(executor.submit(() -> {
+                    try (Timings.Timer timer = timings.start("merge", docRenderer, outputDirectory)) {
+                        merge(sink, context, outputFile);
+                    } finally {
+                        pending.release();
+                    }
+                    return null;
+                }));
+            }
+
+            awaitAll(merges);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Add Doxia documents to the rendered pages, to be rendered from the archiver threads, except the ones that must
+     * be rendered as a whole by the site renderer.
+     */
+    private void deferDoxiaDocuments(
+            Collection<DocumentRenderer> documents, SiteRenderingContext context, File outputDirectory)
+            throws RendererException, IOException {
+        ConcurrentSiteRenderer pageRenderer =
+                concurrentCallers ? this : new ConcurrentSiteRenderer(siteRenderer, doxia, threads, true);
+        for (DocumentRenderer docRenderer : documents) {
+            DocumentRenderingContext docRenderingContext = docRenderer.getRenderingContext();
+            if (!(docRenderer instanceof DoxiaDocumentRenderer)
+                    || docRenderingContext.getAttribute("velocity") != null
+                    || context.isValidate()) {
+                renderWithParsers(Collections.singletonList(docRenderer), context, outputDirectory);
+                continue;
+            }
+
+            File outputFile = new File(outputDirectory, docRenderer.getOutputPath());
+            renderedPages.put(outputFile, docRenderer, context, pageRenderer);
+            // a page from a previous run must not end up in the archive too
+            Files.deleteIfExists(outputFile.toPath());
+        }
+    }
+
+    /**
+     * Render a single document to a writer, from any thread: a Doxia source is parsed under the parser lock when
+     * there are concurrent callers, then merged into the skin template without holding it. Reports and other
+     * generated documents do not use the shared parsers and are rendered without lock.
+     *
+     * @param writer the writer to render the document to
+     * @param docRenderer the document to render
+     * @param context the site rendering context
+     * @throws RendererException if the document fails to render
+     * @throws IOException if the document cannot be written
+     */
+    public void renderDocument(Writer writer, DocumentRenderer docRenderer, SiteRenderingContext context)
+            throws RendererException, IOException {
+        if (!(docRenderer instanceof DoxiaDocumentRenderer)) {
+            docRenderer.renderDocument(writer, siteRenderer, context);
+            return;
+        }
+
+        DocumentRenderingContext docRenderingContext = docRenderer.getRenderingContext();
+        if (docRenderingContext.getAttribute("velocity") != null || context.isValidate()) {
+            if (concurrentCallers) {
+                synchronized (PARSER_LOCK) {
+                    docRenderer.renderDocument(writer, siteRenderer, context);
+                }
+            } else {
+                docRenderer.renderDocument(writer, siteRenderer, context);
+            }
+            return;
+        }
+
+        siteRenderer.mergeDocumentIntoSite(writer, parse(docRenderingContext, context), context);
+    }
+
+    /**
+     * Render reports, each one in its own task. Every report logs to a buffer that is sent to the given log once the
+     * reports before it are done, so output is in report order whatever the order of completion.
+     *
+     * @param reports the reports to render
+     * @param context the site rendering context
+     * @param outputDirectory the output directory
+     * @param log the log to send report output to
+     * @throws RendererException if a report fails to render
+     * @throws IOException if a report cannot be written
+     */
+    public void renderReports(
+            Collection<ReportDocumentRenderer> reports, SiteRenderingContext context, File outputDirectory, Log log)
+            throws RendererException, IOException {
+        if (threads <= 1 || reports.size() <= 1) {
+            render(reports, context, outputDirectory);
+            return;
+        }
+
+        ExecutorService executor = Workers.newFixedThreadPool("site-render", Math.min(threads, reports.size()));
+        List<Future<Void>> tasks = new ArrayList<>(reports.size());
+        List<BufferedLog> logs = new ArrayList<>(reports.size());
+        try {
+            for (ReportDocumentRenderer report : reports) {
+                BufferedLog reportLog = new BufferedLog(log);
+                // ReportDocumentRenderer sets the report class loader as context class loader of the worker thread
+                DocumentRenderer docRenderer = new ReportDocumentRenderer(report, reportLog);
+                logs.add(reportLog);
+                tasks.add(executor.submit(() -> {
+                    render(Collections.singletonList(docRenderer), context, outputDirectory);
+                    return null;
+                }));
+            }
+
+            Throwable failure;
+            try {
+                failure = Workers.awaitAll(tasks, i -> logs.get(i).flush());
+            } catch (InterruptedException e) {
+                throw new RendererException("Interrupted while rendering reports", e);
+            }
+            rethrow(failure);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Render documents with the site renderer, which parses them.
+     */
+    private void renderWithParsers(
+            Collection<DocumentRenderer> documents, SiteRenderingContext context, File outputDirectory)
+            throws RendererException, IOException {
+        if (concurrentCallers) {
+            synchronized (PARSER_LOCK) {
+                render(documents, context, outputDirectory);
+            }
+        } else {
+            render(documents, context, outputDirectory);
+        }
+    }
+
+    /**
+     * Render documents one after the other with the site renderer, measuring each one.
+     *
+     * @param documents the documents to render
+     * @param context the site rendering context
+     * @param outputDirectory the output directory
+     * @throws RendererException if a document fails to render
+     * @throws IOException if a document cannot be written
+     */
+    void render(Collection<? extends DocumentRenderer> documents, SiteRenderingContext context, File outputDirectory)
+            throws RendererException, IOException {
+        for (DocumentRenderer docRenderer : documents) {
+            try (Timings.Timer timer = timings.start(null, docRenderer, outputDirectory)) {
+                siteRenderer.render(Collections.singletonList(docRenderer), context, outputDirectory);
+            }
+        }
+    }
+
+    private static boolean isModified(DocumentRenderer docRenderer, SiteRenderingContext context, File outputFile) {
+        DocumentRenderingContext docRenderingContext = docRenderer.getRenderingContext();
+        File inputFile = new File(docRenderingContext.getBasedir(), docRenderingContext.getInputPath());
+
+        return docRenderer.isOverwrite()
+                || !outputFile.exists()
+                || (inputFile.lastModified() > outputFile.lastModified())
+                || (context.getSiteModel().getLastModified() > outputFile.lastModified());
+    }
+
+    /**
+     * Parse a Doxia source the same way <code>DefaultSiteRenderer.renderDocument</code> does for a source that needs
+     * neither Velocity processing nor validation, which are always rendered by the site renderer itself. Only ever
+     * called from the thread driving the rendering, or under the parser lock when there are concurrent callers,
+     * since parsers are not thread-safe.
+     */
+    private SiteRendererSink parse(DocumentRenderingContext docRenderingContext, SiteRenderingContext context)
+            throws RendererException {
+        if (concurrentCallers) {
+            synchronized (PARSER_LOCK) {
+                return doParse(docRenderingContext, context);
+            }
+        }
+        return doParse(docRenderingContext, context);
+    }
+
+    private SiteRendererSink doParse(DocumentRenderingContext docRenderingContext, SiteRenderingContext context)
+            throws RendererException {
+        SiteRendererSink sink = new SiteRendererSink(docRenderingContext);
+
+        Path doc = docRenderingContext.getBasedir().toPath().resolve(docRenderingContext.getInputPath());
+
+        try {
+            Parser parser = doxia.getParser(docRenderingContext.getParserId());
+            ParserConfigurator configurator = context.getParserConfigurator();
+            boolean isConfigured = false;
+            if (configurator != null) {
+                isConfigured = configurator.configure(docRenderingContext.getParserId(), doc, parser);
+            }
+            if (!isConfigured) {
+                // DOXIASITETOOLS-146 don't render comments from source markup
+                parser.setEmitComments(false);
+                parser.setEmitAnchorsForIndexableEntries(true);
+            }
+
+            try (Reader reader = newReader(doc, parser.getType(), context.getInputEncoding())) {
+                doxia.parse(reader, docRenderingContext.getParserId(), sink, docRenderingContext.getDoxiaSourcePath());
+            }
+        } catch (ParserNotFoundException e) {
+            throw new RendererException("Error getting a parser for '" + doc + "'", e);
+        } catch (ParseException e) {
+            StringBuilder errorMsgBuilder = new StringBuilder();
+            errorMsgBuilder.append("Error parsing '").append(doc).append("'");
+            if (e.getLineNumber() > 0) {
+                errorMsgBuilder.append(", line ").append(e.getLineNumber());
+            }
+            throw new RendererException(errorMsgBuilder.toString(), e);
+        } catch (IOException e) {
+            throw new RendererException("Error while processing '" + doc + "'", e);
+        } finally {
+            sink.flush();
+            sink.close();
+        }
+
+        return sink;
+    }
+
+    /**
+     * Open a Doxia source: XML sources are read with the encoding of their prolog, other sources with the input
+     * encoding. Malformed input is replaced rather than rejected, as <code>DefaultSiteRenderer</code> does.
+     */
+    private static Reader newReader(Path doc, int parserType, String inputEncoding) throws IOException {
+        if (parserType == Parser.XML_TYPE) {
+            return new XmlStreamReader(Files.newInputStream(doc));
+        }
+        return new BufferedReader(new InputStreamReader(Files.newInputStream(doc), Charset.forName(inputEncoding)));
+    }
+
+    private void merge(SiteRendererSink sink, SiteRenderingContext context, File outputFile)
+            throws RendererException, IOException {
+        if (!outputFile.getParentFile().exists()) {
+            outputFile.getParentFile().mkdirs();
+        }
+
+        try (Writer writer =
+                new OutputStreamWriter(Files.newOutputStream(outputFile.toPath()), context.getOutputEncoding())) {
+            siteRenderer.mergeDocumentIntoSite(writer, sink, context);
+        }
+    }
+
+    /**
+     * Wait for every task, then rethrow the failure of the first one in submission order, if any.
+     */
+    private static void awaitAll(List<Future<Void>> futures) throws RendererException, IOException {
+        try {
+            rethrow(Workers.awaitAll(futures, i -> {}));
+        } catch (InterruptedException e) {
+            throw new RendererException("Interrupted while rendering documents", e);
+        }
+    }
+
+    private static void rethrow(Throwable failure) throws RendererException, IOException {
+        Workers.rethrowIf(failure, RendererException.class);
+        Workers.rethrowIf(failure, IOException.class);
+        if (failure != null) {
+            throw new RendererException(failure.getMessage(), failure);
+        }
+    }
+}
@@ -0,0 +1,545 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.apache.maven.doxia.parser.module.ParserModule;
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
+import org.apache.maven.doxia.siterenderer.RendererException;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext.SiteDirectory;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.util.Os;
+import org.codehaus.plexus.util.PathTool;
+import org.codehaus.plexus.util.SelectorUtils;
+
+/**
+ * Index of documents by output name, with the Doxia documents of the site directories that
+ * {@link org.apache.maven.doxia.siterenderer.SiteRenderer#locateDocumentFiles} would locate, but whose renderers
+ * are only created when first accessed. Documents are located with the same rules as
+ * <code>DefaultSiteRenderer.locateDocumentFiles</code> and <code>DefaultSiteRenderer.addModuleFiles</code>: same
+ * parser extensions and excludes, same output names, and the same error for sources clashing on an output name.
+ * <p>
+ * Until the index is iterated or {@link #scan() scanned}, a Doxia document is looked up in the listing of its own
+ * directory only, so that documents can be served without scanning the whole site directories first. Directory
+ * listings are cached for the lifetime of the index: when site sources change, a {@link #refresh refreshed} index
+ * reads again the listings of the changed directories only.
+ * Other documents, like reports, are added with {@link #put}, and documents cannot be removed.
+ * </p>
+ *
+ * @since 4.0.0
+ */
+class DocumentIndex extends AbstractMap<String, DocumentRenderer> {
+    private static final String HTML = ".html";
+
+    private static final String VELOCITY = ".vm";
+
+    private final List<ModuleDirectory> moduleDirectories = new ArrayList<>();
+
+    private final Log log;
+
+    /**
+     * Listings of the directories read so far.
+     */
+    private final Map<File, Listing> listings = new ConcurrentHashMap<>();
+
+    /**
+     * Renderers of the Doxia documents accessed so far.
+     */
+    private final Map<String, DocumentRenderer> renderers = new ConcurrentHashMap<>();
+
+    /**
+     * Documents added to the index.
+     */
+    private final Map<String, DocumentRenderer> added = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * Sources of the Doxia documents, once the site directories are scanned.
+     */
+    private volatile Map<String, DocumentSource> sources;
+
+    /**
+     * Create the index of the Doxia documents of a site rendering context.
+     *
+     * @param parserModules the Doxia parser modules, giving source directories and extensions of documents
+     * @param context the site rendering context
+     * @param log the log, to warn about documents that only differ by case
+     */
+    DocumentIndex(Collection<ParserModule> parserModules, SiteRenderingContext context, Log log) {
+        Map<String, String> moduleExcludes = context.getModuleExcludes();
+        for (SiteDirectory siteDirectory : context.getSiteDirectories()) {
+            for (ParserModule module : parserModules) {
+                if (module.getExtensions() == null || module.getExtensions().length == 0) {
+                    continue;
+                }
+                String excludes = (moduleExcludes == null) ? null : moduleExcludes.get(module.getParserId());
+                moduleDirectories.add(new ModuleDirectory(
+                        context.getRootDirectory(),
+                        new File(siteDirectory.getPath(), module.getSourceDirectory()),
+                        module,
+                        excludes,
+                        siteDirectory.isEditable()));
+            }
+        }
+        this.log = log;
+    }
+
+    private DocumentIndex(DocumentIndex index) {
+        moduleDirectories.addAll(index.moduleDirectories);
+        log = index.log;
+    }
+
+    /**
+     * Create an index of the same documents after site sources changed. The listings of other directories are kept,
+     * and so are added documents.
+     *
+     * @param changedFiles the files created, modified or deleted in the site directories, with their absolute paths
+     * @return the new index
+     */
+    DocumentIndex refresh(Collection<File> changedFiles) {
+        Set<File> stale = new HashSet<>();
+        for (File changed : changedFiles) {
+            // a created or deleted file changes the listing of its parent, and a deleted directory its own listing
+            stale.add(changed);
+            stale.add(changed.getParentFile());
+        }
+
+        DocumentIndex index = new DocumentIndex(this);
+        listings.forEach((directory, listing) -> {
+            if (!stale.contains(directory.getAbsoluteFile())) {
+                index.listings.put(directory, listing);
+            }
+        });
+        synchronized (added) {
+            index.added.putAll(added);
+        }
+        return index;
+    }
+
+    /**
+     * Scan the site directories for Doxia documents, if not done yet, checking that no two documents have the same
+     * output name. Renderers are still only created when documents are accessed.
+     *
+     * @return this index
+     * @throws RendererException if two documents have the same output name
+     */
+    DocumentIndex scan() throws RendererException {
+        if (sources == null) {
+            synchronized (this) {
+                if (sources == null) {
+                    sources = scanSources();
+                }
+            }
+        }
+        return this;
+    }
+
+    private Map<String, DocumentSource> scanSources() throws RendererException {
+        Map<String, DocumentSource> scanned = new LinkedHashMap<>();
+        // same order and checks as the site renderer
+        for (ModuleDirectory moduleDirectory : moduleDirectories) {
+            List<String> files = new ArrayList<>();
+            listFiles(moduleDirectory.basedir, "", files);
+
+            Map<String, String> caseInsensitiveOutputNames = new HashMap<>();
+            for (String extension : moduleDirectory.module.getExtensions()) {
+                for (String suffix : Arrays.asList('.' + extension, '.' + extension + VELOCITY)) {
+                    for (String doc : files) {
+                        if (!endsWithIgnoreCase(doc, suffix) || moduleDirectory.isExcluded(doc)) {
+                            continue;
+                        }
+
+                        DocumentSource source = new DocumentSource(moduleDirectory, doc, extension);
+                        String outputName = source.getOutputName();
+                        DocumentSource existing = scanned.get(outputName);
+                        if (existing != null) {
+                            throw clash(existing, source);
+                        }
+
+                        String original =
+                                caseInsensitiveOutputNames.put(outputName.toLowerCase(Locale.ROOT), outputName);
+                        if (original != null) {
+                            if (Os.isFamily(Os.FAMILY_WINDOWS)) {
+                                throw clash(scanned.get(original), source);
+                            }
+                            log.warn("File '" + source.getSourcePath() + "' could clash with existing '"
+                                    + scanned.get(original).getFile() + "'.");
+                        }
+
+                        scanned.put(outputName, source);
+                    }
+                }
+            }
+        }
+        return scanned;
+    }
+
+    private void listFiles(File directory, String path, List<String> files) {
+        Listing listing = list(directory);
+        for (String file : listing.files) {
+            files.add(path + file);
+        }
+        for (String subdirectory : listing.directories) {
+            listFiles(new File(directory, subdirectory), path + subdirectory + File.separator, files);
+        }
+    }
+
+    private Listing list(File directory) {
+        return listings.computeIfAbsent(directory, Listing::read);
+    }
+
+    /**
+     * Look a Doxia document up in the directory of its output name.
+     *
+     * @return the source of the document, or <code>null</code> if there is none
+     */
+    private DocumentSource lookup(String outputName) {
+        if (!outputName.endsWith(HTML)) {
+            return null;
+        }
+        String path = outputName.substring(0, outputName.length() - HTML.length());
+        for (String segment : path.split("/", -1)) {
+            if (segment.isEmpty() || segment.equals(".") || segment.equals("..") || segment.contains("\\")) {
+                // not an output name of a document from a site directory
+                return null;
+            }
+        }
+
+        int slash = path.lastIndexOf('/');
+        String directory = path.substring(0, slash + 1);
+        String name = path.substring(slash + 1) + '.';
+
+        DocumentSource found = null;
+        for (ModuleDirectory moduleDirectory : moduleDirectories) {
+            for (String file : list(new File(moduleDirectory.basedir, directory)).files) {
+                if (!file.startsWith(name)) {
+                    continue;
+                }
+                String doc = directory.replace('/', File.separatorChar) + file;
+                String extension = moduleDirectory.getExtension(file);
+                if (extension == null || moduleDirectory.isExcluded(doc)) {
+                    continue;
+                }
+
+                DocumentSource source = new DocumentSource(moduleDirectory, doc, extension);
+                if (source.getOutputName().equals(outputName)) {
+                    if (found != null) {
+                        // Map.get cannot throw checked exceptions: callers unwrap the RendererException
+                        RendererException e = clash(found, source);
+                        throw new IllegalStateException(e.getMessage(), e);
+                    }
+                    found = source;
+                }
+            }
+        }
+        return found;
+    }
+
+    private DocumentSource getSource(String outputName) {
+        Map<String, DocumentSource> scanned = sources;
+        return (scanned == null) ? lookup(outputName) : scanned.get(outputName);
+    }
+
+    private static RendererException clash(DocumentSource existing, DocumentSource source) {
+        return new RendererException(
+                "File '" + source.getSourcePath() + "' clashes with existing '" + existing.getFile() + "'.");
+    }
+
+    @Override
+    public DocumentRenderer get(Object key) {
+        DocumentRenderer renderer = added.get(key);
+        if (renderer != null || !(key instanceof String)) {
+            return renderer;
+        }
+
+        renderer = renderers.get(key);
+        if (renderer == null) {
+            DocumentSource source = getSource((String) key);
+            if (source != null) {
+                renderer = renderers.computeIfAbsent((String) key, outputName -> source.createRenderer());
+            }
+        }
+        return renderer;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return added.containsKey(key)
+                || renderers.containsKey(key)
+                || (key instanceof String && getSource((String) key) != null);
+    }
+
+    @Override
+    public DocumentRenderer put(String key, DocumentRenderer value) {
+        return added.put(key, value);
+    }
+
+    /**
+     * @return the output names of the documents, scanning the site directories if not done yet
+     */
+    private List<String> outputNames() {
+        try {
+            scan();
+        } catch (RendererException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+
+        List<String> outputNames = new ArrayList<>(sources.size() + added.size());
+        synchronized (added) {
+            for (String outputName : sources.keySet()) {
+                if (!added.containsKey(outputName)) {
+                    outputNames.add(outputName);
+                }
+            }
+            outputNames.addAll(added.keySet());
+        }
+        return outputNames;
+    }
+
+    @Override
+    public int size() {
+        return outputNames().size();
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return new DocumentSet<>(outputName -> outputName);
+    }
+
+    @Override
+    public Collection<DocumentRenderer> values() {
+        return new AbstractCollection<DocumentRenderer>() {
+            @Override
+            public Iterator<DocumentRenderer> iterator() {
+                return new DocumentSet<>(DocumentIndex.this::get).iterator();
+            }
+
+            @Override
+            public int size() {
+                return DocumentIndex.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<String, DocumentRenderer>> entrySet() {
+        return new DocumentSet<>(outputName -> new SimpleImmutableEntry<>(outputName, get(outputName)));
+    }
+
+    /**
+     * Read-only view of the documents, creating renderers while iterating only if the view needs them.
+     */
+    private class DocumentSet<E> extends AbstractSet<E> {
+        private final Function<String, E> element;
+
+        DocumentSet(Function<String, E> element) {
+            this.element = element;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            Iterator<String> outputNames = outputNames().iterator();
+            return new Iterator<E>() {
+                @Override
+                public boolean hasNext() {
+                    return outputNames.hasNext();
+                }
+
+                @Override
+                public E next() {
+                    return element.apply(outputNames.next());
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return DocumentIndex.this.size();
+        }
+    }
+
+    private static boolean endsWithIgnoreCase(String str, String suffix) {
+        return str.regionMatches(true, str.length() - suffix.length(), suffix, 0, suffix.length());
+    }
+
+    /**
+     * A Doxia parser module source directory in a site directory.
+     */
+    private static class ModuleDirectory {
+        private final File basedir;
+
+        private final String relativePath;
+
+        private final ParserModule module;
+
+        private final List<String> excludes = new ArrayList<>();
+
+        private final boolean editable;
+
+        ModuleDirectory(File rootDirectory, File basedir, ParserModule module, String excludes, boolean editable) {
+            this.basedir = basedir;
+            this.relativePath =
+                    PathTool.getRelativeFilePath(rootDirectory.getAbsolutePath(), basedir.getAbsolutePath());
+            this.module = module;
+            this.editable = editable;
+
+            if (excludes != null) {
+                // same patterns as a directory scanner
+                for (String exclude : excludes.split(",")) {
+                    String pattern =
+                            exclude.trim().replace('/', File.separatorChar).replace('\\', File.separatorChar);
+                    if (pattern.endsWith(File.separator)) {
+                        pattern += "**";
+                    }
+                    if (!pattern.isEmpty()) {
+                        this.excludes.add(pattern);
+                    }
+                }
+            }
+        }
+
+        boolean isExcluded(String doc) {
+            for (String exclude : excludes) {
+                if (SelectorUtils.matchPath(exclude, doc, true)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the extension of the module of a file name, or <code>null</code> if it is not a document
+         */
+        String getExtension(String file) {
+            for (String extension : module.getExtensions()) {
+                if (endsWithIgnoreCase(file, '.' + extension) || endsWithIgnoreCase(file, '.' + extension + VELOCITY)) {
+                    return extension;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A Doxia document source file, with what is needed to create its renderer.
+     */
+    private static class DocumentSource {
+        private final ModuleDirectory directory;
+
+        private final String doc;
+
+        private final String extension;
+
+        DocumentSource(ModuleDirectory directory, String doc, String extension) {
+            this.directory = directory;
+            this.doc = doc;
+            this.extension = extension;
+        }
+
+        /**
+         * @return the output name, as computed by the document rendering context
+         */
+        String getOutputName() {
+            String document = doc.replace('\\', '/');
+            if (endsWithIgnoreCase(document, VELOCITY)) {
+                document = document.substring(0, document.length() - VELOCITY.length());
+            }
+            return document.substring(0, document.length() - extension.length() - 1) + HTML;
+        }
+
+        File getFile() {
+            return new File(directory.basedir, doc);
+        }
+
+        String getSourcePath() {
+            return directory.module.getSourceDirectory() + File.separator + doc;
+        }
+
+        DocumentRenderer createRenderer() {
+            DocumentRenderingContext docRenderingContext = new DocumentRenderingContext(
+                    directory.basedir,
+                    directory.relativePath,
+                    doc,
+                    directory.module.getParserId(),
+                    extension,
+                    directory.editable);
+
+            if (endsWithIgnoreCase(doc, VELOCITY)) {
+                docRenderingContext.setAttribute("velocity", "true");
+            }
+
+            return new DoxiaDocumentRenderer(docRenderingContext);
+        }
+    }
+
+    /**
+     * Files and subdirectories of a directory, sorted by name.
+     */
+    private static class Listing {
+        private static final Listing EMPTY = new Listing(Collections.emptyList(), Collections.emptyList());
+
+        private final List<String> files;
+
+        private final List<String> directories;
+
+        Listing(List<String> files, List<String> directories) {
+            this.files = files;
+            this.directories = directories;
+        }
+
+        static Listing read(File directory) {
+            File[] children = directory.listFiles();
+            if (children == null) {
+                return EMPTY;
+            }
+            Arrays.sort(children);
+
+            List<String> files = new ArrayList<>();
+            List<String> directories = new ArrayList<>();
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    directories.add(child.getName());
+                } else if (child.isFile()) {
+                    files.add(child.getName());
+                }
+            }
+            return new Listing(files, directories);
+        }
+    }
+}
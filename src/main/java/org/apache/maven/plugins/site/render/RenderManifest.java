@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.doxia.site.io.xpp3.SiteXpp3Writer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.plugins.site.Digests;
+
+/**
+ * Manifest of rendered documents, recording for each output path a hash of everything the output depends on: the
+ * source file, the plugin and Doxia versions, the effective site model, the skin content and its template
+ * properties. A document whose hash did not change
+ * since the previous run does not need to be rendered again.
+ *
+ * @since 4.0.0
+ */
+class RenderManifest {
+    private final File file;
+
+    private final Properties entries = new Properties();
+
+    /**
+     * Output paths checked during this run: entries of documents whose source was deleted are dropped on store.
+     */
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
+
+    private RenderManifest(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Load the manifest stored in the given file, if any.
+     *
+     * @param file the manifest file
+     * @return the manifest, empty if the file does not exist or cannot be read
+     */
+    static RenderManifest load(File file) {
+        RenderManifest manifest = new RenderManifest(file);
+        if (file.isFile()) {
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                manifest.entries.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                // corrupted manifest: everything will be rendered again
+                manifest.entries.clear();
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Compute the hash of the site-wide inputs of a rendering: renderer, site model, skin content, template
+     * properties and encodings.
+     *
+     * @param context the site rendering context
+     * @param rendererId the id of the plugin and of the Doxia version rendering the site
+     * @return the hash of the site rendering context
+     * @throws IOException if the site model cannot be serialized
+     */
+    static String hash(SiteRenderingContext context, String rendererId) throws IOException {
+        MessageDigest digest = Digests.newSha256();
+        update(digest, rendererId);
+
+        StringWriter siteModel = new StringWriter();
+        if (context.getSiteModel() != null) {
+            new SiteXpp3Writer().write(siteModel, context.getSiteModel());
+        }
+        update(digest, siteModel.toString());
+
+        Artifact skin = context.getSkin();
+        update(digest, skin == null ? "" : SkinCache.contentKey(skin));
+        if (context.getTemplateProperties() != null) {
+            update(digest, String.valueOf(new TreeMap<>(context.getTemplateProperties())));
+        }
+        update(digest, String.valueOf(context.getLocale()));
+        update(digest, context.getInputEncoding());
+        update(digest, context.getOutputEncoding());
+
+        return Digests.toHex(digest.digest());
+    }
+
+    /**
+     * Compute the hash of a document: its source content combined with the hash of the site rendering context.
+     *
+     * @param docRenderingContext the document rendering context
+     * @param contextHash the hash of the site rendering context
+     * @return the hash of the document
+     * @throws IOException if the source cannot be read
+     */
+    static String hash(DocumentRenderingContext docRenderingContext, String contextHash) throws IOException {
+        MessageDigest digest = Digests.newSha256();
+        update(digest, contextHash);
+        update(digest, docRenderingContext.getParserId());
+        File source = new File(docRenderingContext.getBasedir(), docRenderingContext.getInputPath());
+        digest.update(Files.readAllBytes(source.toPath()));
+        return Digests.toHex(digest.digest());
+    }
+
+    /**
+     * @param outputPath the output path of a document
+     * @param hash the current hash of the document
+     * @return <code>true</code> if the document was rendered with the same hash
+     */
+    boolean isUnchanged(String outputPath, String hash) {
+        seen.add(outputPath);
+        return hash.equals(entries.getProperty(outputPath));
+    }
+
+    void put(String outputPath, String hash) {
+        seen.add(outputPath);
+        entries.setProperty(outputPath, hash);
+    }
+
+    void remove(String outputPath) {
+        entries.remove(outputPath);
+    }
+
+    /**
+     * Store the manifest, keeping only the entries of documents checked during this run.
+     *
+     * @throws IOException if the manifest cannot be written
+     */
+    void store() throws IOException {
+        if (!file.getParentFile().exists()) {
+            file.getParentFile().mkdirs();
+        }
+        entries.keySet().retainAll(seen);
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            entries.store(out, "maven-site-plugin rendering manifest");
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+}
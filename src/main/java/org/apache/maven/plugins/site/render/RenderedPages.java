@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.RendererException;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.codehaus.plexus.archiver.Archiver;
+import org.codehaus.plexus.archiver.ArchiverException;
+import org.codehaus.plexus.components.io.resources.AbstractPlexusIoResource;
+import org.codehaus.plexus.components.io.resources.PlexusIoResource;
+import org.codehaus.plexus.util.SelectorUtils;
+
+/**
+ * Doxia documents rendered while an archive is written instead of being written to the output directory: each page
+ * is merged into the skin when the archiver reads its content, so that no page is written to disk nor kept in
+ * memory once compressed.
+ *
+ * @since 4.0.0
+ */
+class RenderedPages {
+    private static final int FILE_MODE = 0644;
+
+    private final Map<File, Page> pages = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param outputFile the file the page would have been written to
+     * @param docRenderer the document to render
+     * @param context the site rendering context
+     * @param renderer the renderer, able to render documents from concurrent threads
+     */
+    void put(
+            File outputFile,
+            DocumentRenderer docRenderer,
+            SiteRenderingContext context,
+            ConcurrentSiteRenderer renderer) {
+        pages.put(outputFile.getAbsoluteFile(), new Page(docRenderer, context, renderer));
+    }
+
+    int size() {
+        return pages.size();
+    }
+
+    /**
+     * Add the pages to an archive, with their path relative to the output directory, selected by the same patterns
+     * as files of the output directory. Pages are rendered by the archiver threads while the archive is created.
+     *
+     * @param archiver the archiver
+     * @param outputDirectory the output directory
+     * @param includes the include patterns
+     * @param excludes the exclude patterns
+     * @param lastModified the last modification time of the pages
+     * @throws ArchiverException if a page cannot be added
+     */
+    void addTo(Archiver archiver, File outputDirectory, String[] includes, String[] excludes, long lastModified)
+            throws ArchiverException {
+        Path base = outputDirectory.getAbsoluteFile().toPath();
+        for (Map.Entry<File, Page> page : pages.entrySet()) {
+            String path = base.relativize(page.getKey().toPath()).toString().replace('\\', '/');
+            if (isSelected(path, includes, excludes)) {
+                archiver.addResource(new PageResource(path, lastModified, page.getValue()), path, FILE_MODE);
+            }
+        }
+    }
+
+    private static boolean isSelected(String path, String[] includes, String[] excludes) {
+        boolean included = false;
+        for (String include : includes) {
+            included |= SelectorUtils.matchPath(include, path);
+        }
+        for (String exclude : excludes) {
+            included &= !SelectorUtils.matchPath(exclude, path);
+        }
+        return included;
+    }
+
+    /**
+     * A document to render, with everything needed to render it later.
+     */
+    private static class Page {
+        private final DocumentRenderer docRenderer;
+
+        private final SiteRenderingContext context;
+
+        private final ConcurrentSiteRenderer renderer;
+
+        Page(DocumentRenderer docRenderer, SiteRenderingContext context, ConcurrentSiteRenderer renderer) {
+            this.docRenderer = docRenderer;
+            this.context = context;
+            this.renderer = renderer;
+        }
+
+        byte[] render() throws IOException {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            try (Writer writer = new OutputStreamWriter(content, context.getOutputEncoding())) {
+                renderer.renderDocument(writer, docRenderer, context);
+            } catch (RendererException e) {
+                throw new IOException("Error rendering " + docRenderer.getOutputPath() + ": " + e.getMessage(), e);
+            }
+            return content.toByteArray();
+        }
+    }
+
+    /**
+     * A page as archive resource, rendered when its content is read.
+     */
+    private static class PageResource extends AbstractPlexusIoResource {
+        private final Page page;
+
+        PageResource(String name, long lastModified, Page page) {
+            super(name, lastModified, PlexusIoResource.UNKNOWN_RESOURCE_SIZE, true, false, true);
+            this.page = page;
+        }
+
+        @Override
+        public InputStream getContents() throws IOException {
+            return new ByteArrayInputStream(page.render());
+        }
+
+        @Override
+        public URL getURL() {
+            return null;
+        }
+    }
+}
@@ -37,6 +37,7 @@ import org.apache.maven.doxia.siterenderer.RendererException;
 import org.apache.maven.doxia.siterenderer.SiteRenderer;
 import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
 import org.apache.maven.doxia.siterenderer.sink.SiteRendererSink;
+import org.apache.maven.plugin.Mojo;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.reporting.MavenMultiPageReport;
 import org.apache.maven.reporting.MavenReport;
@@ -61,6 +62,12 @@ public class ReportDocumentRenderer implements DocumentRenderer {
 
     private final ClassLoader classLoader;
 
+    /**
+     * The report output directory at the time the renderer was created, since the report may be shared with the
+     * renderers of other locales, which use another output directory.
+     */
+    private final File reportOutputDirectory;
+
     private final Log log;
 
     public ReportDocumentRenderer(
@@ -75,18 +82,46 @@ public class ReportDocumentRenderer implements DocumentRenderer {
                         + ':'
                         + mavenReportExecution.getGoal();
         this.classLoader = mavenReportExecution.getClassLoader();
+        this.reportOutputDirectory = report.getReportOutputDirectory();
+        this.log = log;
+    }
+
+    /**
+     * Create a renderer for the same report, logging to another log.
+     *
+     * @param renderer the renderer to copy
+     * @param log the log to use instead of the original one
+     */
+    ReportDocumentRenderer(ReportDocumentRenderer renderer, Log log) {
+        this.report = renderer.report;
+        this.docRenderingContext = renderer.docRenderingContext;
+        this.reportMojoInfo = renderer.reportMojoInfo;
+        this.classLoader = renderer.classLoader;
+        this.reportOutputDirectory = renderer.reportOutputDirectory;
         this.log = log;
     }
 
+    /**
+     * Sink of a sub-page of a multi-page report, merged into the site and written as soon as the report closes it.
+     */
     private static class MultiPageSubSink extends SiteRendererSink {
-        private File outputDirectory;
+        private final File outputDirectory;
+
+        private final String outputName;
+
+        private final MultiPageSinkFactory factory;
 
-        private String outputName;
+        private boolean closed;
 
-        MultiPageSubSink(File outputDirectory, String outputName, DocumentRenderingContext docRenderingContext) {
+        MultiPageSubSink(
+                File outputDirectory,
+                String outputName,
+                DocumentRenderingContext docRenderingContext,
+                MultiPageSinkFactory factory) {
             super(docRenderingContext);
             this.outputName = outputName;
             this.outputDirectory = outputDirectory;
+            this.factory = factory;
         }
 
         public String getOutputName() {
@@ -96,27 +131,67 @@ public class ReportDocumentRenderer implements DocumentRenderer {
         public File getOutputDirectory() {
             return outputDirectory;
         }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                super.close();
+                factory.merge(this);
+            }
+        }
     }
 
+    /**
+     * Sink factory of multi-page reports, streaming sub-pages: each sub-page is merged into the site and written when
+     * its sink is closed, so that only the sub-pages being generated are kept in memory instead of the whole report.
+     */
     private static class MultiPageSinkFactory implements SinkFactory {
         /**
          * The report that is (maybe) generating multiple pages
          */
-        private MavenReport report;
+        private final MavenReport report;
 
         /**
          * The main DocumentRenderingContext, which is the base for the DocumentRenderingContext of subpages
          */
-        private DocumentRenderingContext docRenderingContext;
+        private final DocumentRenderingContext docRenderingContext;
+
+        private final SiteRenderer siteRenderer;
+
+        private final SiteRenderingContext siteRenderingContext;
+
+        /**
+         * The context class loader to merge sub-pages with, instead of the report class loader.
+         */
+        private final ClassLoader siteClassLoader;
+
+        private final Log log;
 
         /**
-         * List of sinks (subpages) associated to this report
+         * Sinks (subpages) created and not yet closed by the report
          */
-        private List<MultiPageSubSink> sinks = new ArrayList<>();
+        private final List<MultiPageSubSink> openSinks = new ArrayList<>();
 
-        MultiPageSinkFactory(MavenReport report, DocumentRenderingContext docRenderingContext) {
+        private int merged;
+
+        /**
+         * The first failure to merge a sub-page, reported once the report is generated.
+         */
+        private Exception failure;
+
+        MultiPageSinkFactory(
+                MavenReport report,
+                DocumentRenderingContext docRenderingContext,
+                SiteRenderer siteRenderer,
+                SiteRenderingContext siteRenderingContext,
+                Log log) {
             this.report = report;
             this.docRenderingContext = docRenderingContext;
+            this.siteRenderer = siteRenderer;
+            this.siteRenderingContext = siteRenderingContext;
+            this.siteClassLoader = Thread.currentThread().getContextClassLoader();
+            this.log = log;
         }
 
         @Override
@@ -137,10 +212,10 @@ public class ReportDocumentRenderer implements DocumentRenderer {
                     docRenderingContext.getGenerator());
 
             // Create a sink for this subpage, based on this new document rendering context
-            MultiPageSubSink sink = new MultiPageSubSink(outputDirectory, outputName, subSinkContext);
+            MultiPageSubSink sink = new MultiPageSubSink(outputDirectory, outputName, subSinkContext, this);
 
-            // Add it to the list of sinks associated to this report
-            sinks.add(sink);
+            // Keep it until closed, in case the report does not close it
+            openSinks.add(sink);
 
             return sink;
         }
@@ -163,8 +238,54 @@ public class ReportDocumentRenderer implements DocumentRenderer {
             return null;
         }
 
-        public List<MultiPageSubSink> sinks() {
-            return sinks;
+        /**
+         * Merge a closed sub-page into the site and write it, unless the report is external or a sub-page failed.
+         */
+        void merge(MultiPageSubSink sink) {
+            openSinks.remove(sink);
+            if (failure != null || report.isExternalReport()) {
+                // external reports are rendered from their own: no Doxia site rendering needed
+                return;
+            }
+
+            String outputName = sink.getOutputName();
+            log.debug("  Rendering " + outputName);
+
+            // Create directories if necessary
+            if (!sink.getOutputDirectory().exists()) {
+                sink.getOutputDirectory().mkdirs();
+            }
+
+            File outputFile = new File(sink.getOutputDirectory(), outputName);
+
+            ClassLoader reportClassLoader = Thread.currentThread().getContextClassLoader();
+            Thread.currentThread().setContextClassLoader(siteClassLoader);
+            try (Writer out = new OutputStreamWriter(
+                    Files.newOutputStream(outputFile.toPath()), siteRenderingContext.getOutputEncoding())) {
+                siteRenderer.mergeDocumentIntoSite(out, sink, siteRenderingContext);
+                merged++;
+            } catch (RendererException | IOException e) {
+                failure = e;
+            } finally {
+                Thread.currentThread().setContextClassLoader(reportClassLoader);
+            }
+        }
+
+        /**
+         * Merge the sub-pages the report did not close, then report the first failure to merge a sub-page.
+         */
+        void finish() throws RendererException, IOException {
+            for (MultiPageSubSink sink : new ArrayList<>(openSinks)) {
+                sink.close();
+            }
+
+            log.debug("Multipage report: " + merged + " subreports");
+
+            if (failure instanceof RendererException) {
+                throw (RendererException) failure;
+            } else if (failure != null) {
+                throw (IOException) failure;
+            }
         }
     }
 
@@ -186,7 +307,8 @@ public class ReportDocumentRenderer implements DocumentRenderer {
         // main sink
         SiteRendererSink mainSink = new SiteRendererSink(docRenderingContext);
         // sink factory, for multi-page reports that need sub-sinks
-        MultiPageSinkFactory multiPageSinkFactory = new MultiPageSinkFactory(report, docRenderingContext);
+        MultiPageSinkFactory multiPageSinkFactory =
+                new MultiPageSinkFactory(report, docRenderingContext, siteRenderer, siteRenderingContext, log);
 
         ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
         try {
@@ -194,12 +316,31 @@ public class ReportDocumentRenderer implements DocumentRenderer {
                 Thread.currentThread().setContextClassLoader(classLoader);
             }
 
-            if (report instanceof MavenMultiPageReport) {
-                // extended multi-page API
-                ((MavenMultiPageReport) report).generate(mainSink, multiPageSinkFactory, locale);
-            } else {
-                // old single-page-only API
-                report.generate(mainSink, locale);
+            // the same report instance is used for every locale: one generation at a time
+            synchronized (report) {
+                if (reportOutputDirectory != null) {
+                    report.setReportOutputDirectory(reportOutputDirectory);
+                }
+
+                // when rendered concurrently, the report logs to the buffer of its document too
+                Log reportLog = null;
+                if (log instanceof BufferedLog && report instanceof Mojo) {
+                    reportLog = ((Mojo) report).getLog();
+                    ((Mojo) report).setLog(((BufferedLog) log).to(reportLog));
+                }
+                try {
+                    if (report instanceof MavenMultiPageReport) {
+                        // extended multi-page API
+                        ((MavenMultiPageReport) report).generate(mainSink, multiPageSinkFactory, locale);
+                    } else {
+                        // old single-page-only API
+                        report.generate(mainSink, locale);
+                    }
+                } finally {
+                    if (reportLog != null) {
+                        ((Mojo) report).setLog(reportLog);
+                    }
+                }
             }
         } catch (MavenReportException e) {
             String report = (reportMojoInfo == null) ? ('"' + localReportName + '"') : reportMojoInfo;
@@ -221,6 +362,9 @@ public class ReportDocumentRenderer implements DocumentRenderer {
             mainSink.close();
         }
 
+        // sub-pages, eventually created by multi-page reports, are already rendered unless not closed
+        multiPageSinkFactory.finish();
+
         if (report.isExternalReport()) {
             // external reports are rendered from their own: no Doxia site rendering needed
             return;
@@ -228,30 +372,6 @@ public class ReportDocumentRenderer implements DocumentRenderer {
 
         // render main sink document content
         siteRenderer.mergeDocumentIntoSite(writer, mainSink, siteRenderingContext);
-
-        // render sub-sinks, eventually created by multi-page reports
-        List<MultiPageSubSink> sinks = multiPageSinkFactory.sinks();
-
-        log.debug("Multipage report: " + sinks.size() + " subreports");
-
-        for (MultiPageSubSink mySink : sinks) {
-            String outputName = mySink.getOutputName();
-            log.debug("  Rendering " + outputName);
-
-            // Create directories if necessary
-            if (!mySink.getOutputDirectory().exists()) {
-                mySink.getOutputDirectory().mkdirs();
-            }
-
-            File outputFile = new File(mySink.getOutputDirectory(), outputName);
-
-            try (Writer out = new OutputStreamWriter(
-                    Files.newOutputStream(outputFile.toPath()), siteRenderingContext.getOutputEncoding())) {
-                siteRenderer.mergeDocumentIntoSite(out, mySink, siteRenderingContext);
-            } finally {
-                mySink.close();
-            }
-        }
     }
 
     @Override
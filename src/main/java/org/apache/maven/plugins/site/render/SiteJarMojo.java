@@ -22,10 +22,13 @@ import javax.inject.Inject;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.Instant;
 
 import org.apache.maven.archiver.MavenArchiveConfiguration;
 import org.apache.maven.archiver.MavenArchiver;
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.doxia.Doxia;
+import org.apache.maven.doxia.parser.module.ParserModuleManager;
 import org.apache.maven.doxia.site.inheritance.SiteModelInheritanceAssembler;
 import org.apache.maven.doxia.siterenderer.SiteRenderer;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -42,6 +45,10 @@ import org.codehaus.plexus.archiver.jar.ManifestException;
 
 /**
  * Bundles the site output into a JAR so that it can be deployed to a repository.
+ * <p>
+ * JAR entries are compressed in parallel by the archiver, which still writes them in a stable order: with
+ * <code>project.build.outputTimestamp</code> set, the JAR is reproducible.
+ * </p>
  *
  * @author <a href="mailto:mbeerman@yahoo.com">Matthew Beermann</a>
  *
@@ -105,6 +112,21 @@ public class SiteJarMojo extends SiteMojo {
     @Parameter
     private String[] archiveExcludes;
 
+    /**
+     * Whether to render Doxia documents directly into the JAR, without writing them to the output directory first:
+     * each page is rendered when the archiver compresses it. Resources, reports and documents processed by Velocity
+     * are still written to the output directory, which is then added to the JAR as usual.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "site.renderToArchive", defaultValue = "false")
+    private boolean renderToArchive;
+
+    /**
+     * The Doxia documents to render into the JAR.
+     */
+    private final RenderedPages renderedPages = new RenderedPages();
+
     /**
      * Used for attaching the artifact in the project.
      */
@@ -122,9 +144,11 @@ public class SiteJarMojo extends SiteMojo {
             SiteModelInheritanceAssembler assembler,
             SiteRenderer siteRenderer,
             MavenReportExecutor mavenReportExecutor,
+            ParserModuleManager parserModuleManager,
+            Doxia doxia,
             MavenProjectHelper projectHelper,
             JarArchiver jarArchiver) {
-        super(assembler, siteRenderer, mavenReportExecutor);
+        super(assembler, siteRenderer, mavenReportExecutor, parserModuleManager, doxia);
         this.projectHelper = projectHelper;
         this.jarArchiver = jarArchiver;
     }
@@ -155,6 +179,11 @@ public class SiteJarMojo extends SiteMojo {
         }
     }
 
+    @Override
+    RenderedPages getRenderedPages() {
+        return renderToArchive ? renderedPages : null;
+    }
+
     protected String getArtifactType() {
         return "jar";
     }
@@ -194,6 +223,16 @@ public class SiteJarMojo extends SiteMojo {
             archiver.getArchiver().addDirectory(siteDirectory, getArchiveIncludes(), getArchiveExcludes());
         }
 
+        if (renderToArchive) {
+            getLog().info("Rendering " + renderedPages.size() + " pages into the JAR");
+            // same timestamp as the other entries of a reproducible JAR
+            long lastModified = MavenArchiver.parseBuildOutputTimestamp(outputTimestamp)
+                    .map(Instant::toEpochMilli)
+                    .orElseGet(System::currentTimeMillis);
+            renderedPages.addTo(
+                    archiver.getArchiver(), siteDirectory, getArchiveIncludes(), getArchiveExcludes(), lastModified);
+        }
+
         archiver.createArchive(getSession(), getProject(), archive);
 
         return siteJar;
@@ -22,14 +22,23 @@ import javax.inject.Inject;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
-
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.doxia.Doxia;
+import org.apache.maven.doxia.parser.module.ParserModuleManager;
 import org.apache.maven.doxia.site.inheritance.SiteModelInheritanceAssembler;
 import org.apache.maven.doxia.siterenderer.DocumentRenderer;
 import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
@@ -40,9 +49,12 @@ import org.apache.maven.doxia.tools.SiteTool;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.plugins.site.Workers;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.reporting.MavenReportException;
 import org.apache.maven.reporting.exec.MavenReportExecution;
@@ -85,12 +97,123 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
     @Parameter(property = "validate", defaultValue = "false")
     private boolean validate;
 
+    /**
+     * Number of threads used to render Doxia documents. With more than one thread, Doxia sources are still parsed
+     * one after the other, but merging them into the skin and writing the resulting files is done in parallel.
+     * A value of <code>0</code> uses as many threads as available processors.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "renderThreads", defaultValue = "1")
+    private int renderThreads;
+
+    /**
+     * Number of threads used to generate reports. With more than one thread, reports are generated in parallel, each
+     * one with its plugin class loader as thread context class loader. What reports log through their mojo log is
+     * kept in report order; output of reports logging another way, for example through their own logger, may still
+     * interleave. A value of <code>0</code> uses as many threads as available processors.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "reportThreads", defaultValue = "1")
+    private int reportThreads;
+
+    /**
+     * Reports that must not be generated in parallel with other reports when <code>reportThreads</code> or
+     * <code>localeThreads</code> is greater than one, given as <code>artifactId</code> of the reporting plugin or
+     * <code>artifactId:goal</code>. They are generated one after the other once the other reports are done.
+     *
+     * @since 4.0.0
+     */
+    @Parameter
+    private List<String> notThreadSafeReports;
+
+    /**
+     * Whether to skip rendering Doxia documents whose inputs did not change since the previous run. Inputs of each
+     * rendered document (source content, effective site model, skin and template properties) are recorded as a hash
+     * in <code>renderManifest</code>; documents processed by Velocity and reports are always rendered.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "incremental", defaultValue = "false")
+    private boolean incremental;
+
+    /**
+     * The file recording the hash of the inputs of each rendered document, used when <code>incremental</code> is
+     * <code>true</code>.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(defaultValue = "${project.build.directory}/site-render-manifest.properties")
+    private File renderManifest;
+
+    /**
+     * Number of threads used to render locales. With more than one thread and more than one locale, reports and
+     * rendering contexts are prepared one locale after the other, then locales are rendered in parallel, each one in
+     * its own output directory, with log output kept in locale order. Doxia sources are still parsed one at a time.
+     * A value of <code>0</code> uses as many threads as available processors.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "localeThreads", defaultValue = "1")
+    private int localeThreads;
+
+    /**
+     * Whether to measure the wall-clock and CPU time of each phase of the site generation (reports preparation, site
+     * model, skin, document location, resources, rendering of each locale) and of each rendered document: parsing
+     * and merging of Doxia documents, reports, category summaries and sitemap. Timings are written as JSON to
+     * <code>timingsFile</code>, and the slowest ones are listed at the end of the execution.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "timings", defaultValue = "false")
+    private boolean timings;
+
+    /**
+     * The JSON file timings are written to, when <code>timings</code> is <code>true</code>.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(defaultValue = "${project.build.directory}/site-timings.json")
+    private File timingsFile;
+
+    /**
+     * Number of the slowest timings listed at the end of the execution, when <code>timings</code> is
+     * <code>true</code>.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "slowestTimings", defaultValue = "10")
+    private int slowestTimings;
+
+    private RenderManifest manifest;
+
+    /**
+     * Whether locales are rendered in parallel in the current execution.
+     */
+    private boolean concurrentLocales;
+
+    /**
+     * Lock for reports that must not run in parallel with others, when locales are rendered in parallel.
+     */
+    private final Object sequentialReportsLock = new Object();
+
+    /**
+     * Log of the locale being rendered by the current thread, when locales are rendered in parallel.
+     */
+    private final ThreadLocal<Log> localeLog = new ThreadLocal<>();
+
+    private final Doxia doxia;
+
     @Inject
     public SiteMojo(
             SiteModelInheritanceAssembler assembler,
             SiteRenderer siteRenderer,
-            MavenReportExecutor mavenReportExecutor) {
-        super(assembler, siteRenderer, mavenReportExecutor);
+            MavenReportExecutor mavenReportExecutor,
+            ParserModuleManager parserModuleManager,
+            Doxia doxia) {
+        super(assembler, siteRenderer, mavenReportExecutor, parserModuleManager);
+        this.doxia = doxia;
     }
 
     /**
@@ -109,20 +232,29 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
 
         checkInputEncoding();
 
+        if (timings) {
+            phaseTimings = new Timings(outputDirectory);
+        }
         try {
+            manifest = incremental ? RenderManifest.load(renderManifest) : null;
+
             List<Locale> localesList = getLocales();
 
-            for (Locale locale : localesList) {
-                getLog().info("Rendering site for "
-                        + buffer().strong(
-                                        (!locale.equals(SiteTool.DEFAULT_LOCALE)
-                                                ? "locale '" + locale + "'"
-                                                : "default locale"))
-                                .build());
-                File outputDirectory = getOutputDirectory(locale);
-                List<MavenReportExecution> reports =
-                        generateReports ? getReports(outputDirectory) : Collections.emptyList();
-                renderLocale(locale, reports, localesList, outputDirectory);
+            concurrentLocales = getLocaleThreads() > 1 && localesList.size() > 1;
+            if (concurrentLocales) {
+                renderLocalesConcurrently(localesList);
+            } else {
+                for (Locale locale : localesList) {
+                    logRenderingLocale(locale);
+                    File outputDirectory = getOutputDirectory(locale);
+                    List<MavenReportExecution> reports =
+                            generateReports ? getReports(outputDirectory) : Collections.emptyList();
+                    renderLocale(locale, reports, localesList, outputDirectory);
+                }
+            }
+
+            if (manifest != null) {
+                manifest.store();
             }
         } catch (RendererException e) {
             if (e.getCause() instanceof MavenReportException) {
@@ -132,12 +264,124 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
             throw new MojoExecutionException("Failed to render site", e);
         } catch (IOException e) {
             throw new MojoExecutionException("Error during site generation", e);
+        } finally {
+            if (phaseTimings.isEnabled()) {
+                writeTimings();
+                phaseTimings = Timings.DISABLED;
+            }
+        }
+    }
+
+    private void writeTimings() {
+        phaseTimings.logSlowest(getLog(), slowestTimings);
+        try {
+            phaseTimings.write(timingsFile, project.getId());
+            getLog().info("Timings written to " + timingsFile);
+        } catch (IOException e) {
+            getLog().warn("Unable to write timings to " + timingsFile + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Log getLog() {
+        Log log = localeLog.get();
+        return log == null ? super.getLog() : log;
+    }
+
+    private void logRenderingLocale(Locale locale) {
+        getLog().info("Rendering site for "
+                + buffer().strong(
+                                (!locale.equals(SiteTool.DEFAULT_LOCALE)
+                                        ? "locale '" + locale + "'"
+                                        : "default locale"))
+                        .build());
+    }
+
+    /**
+     * Render locales in parallel. Reports and rendering contexts are prepared one locale after the other by the
+     * calling thread, since they resolve plugins and skins, then each locale is rendered by its own task.
+     * Every locale logs to a buffer that is sent to the mojo log once the locales before it are done.
+     */
+    private void renderLocalesConcurrently(List<Locale> localesList)
+            throws IOException, RendererException, MojoFailureException, MojoExecutionException {
+        List<BufferedLog> logs = new ArrayList<>(localesList.size());
+        List<Callable<Void>> renderings = new ArrayList<>(localesList.size());
+        for (Locale locale : localesList) {
+            BufferedLog log = new BufferedLog(super.getLog());
+            logs.add(log);
+            localeLog.set(log);
+            try {
+                logRenderingLocale(locale);
+                File outputDirectory = getOutputDirectory(locale);
+                List<MavenReportExecution> reports =
+                        generateReports ? getReports(outputDirectory) : Collections.emptyList();
+                SiteRenderingContext context = createLocaleRenderingContext(locale, localesList);
+                Map<String, DocumentRenderer> documents = locateDocuments(context, reports, locale);
+                renderings.add(() -> {
+                    localeLog.set(log);
+                    try (Timings.Timer timer = phaseTimings.start("locale", Timings.name(locale))) {
+                        renderDocuments(documents, context, outputDirectory);
+                    } finally {
+                        localeLog.remove();
+                    }
+                    return null;
+                });
+            } finally {
+                localeLog.remove();
+            }
+        }
+
+        ExecutorService executor =
+                Workers.newFixedThreadPool("site-render", Math.min(getLocaleThreads(), renderings.size()));
+        try {
+            List<Future<Void>> tasks = new ArrayList<>(renderings.size());
+            for (Callable<Void> rendering : renderings) {
+                tasks.add(executor.submit(rendering));
+            }
+
+            Throwable failure;
+            try {
+                failure = Workers.awaitAll(tasks, i -> logs.get(i).flush());
+            } catch (InterruptedException e) {
+                throw new MojoExecutionException("Interrupted while rendering locales", e);
+            }
+
+            Workers.rethrowIf(failure, IOException.class);
+            Workers.rethrowIf(failure, RendererException.class);
+            Workers.rethrowIf(failure, MojoFailureException.class);
+            Workers.rethrowIf(failure, MojoExecutionException.class);
+            if (failure != null) {
+                throw new MojoExecutionException("Failed to render site", failure);
+            }
+        } finally {
+            executor.shutdownNow();
         }
     }
 
     private void renderLocale(
             Locale locale, List<MavenReportExecution> reports, List<Locale> supportedLocales, File outputDirectory)
             throws IOException, RendererException, MojoFailureException, MojoExecutionException {
+        SiteRenderingContext context = createLocaleRenderingContext(locale, supportedLocales);
+
+        // locate all Doxia documents first
+        Map<String, DocumentRenderer> documents = locateDocuments(context, reports, locale);
+
+        try (Timings.Timer timer = phaseTimings.start("locale", Timings.name(locale))) {
+            renderDocuments(documents, context, outputDirectory);
+        }
+    }
+
+    @Override
+    protected Map<String, DocumentRenderer> locateDocuments(
+            SiteRenderingContext context, List<MavenReportExecution> reports, Locale locale)
+            throws IOException, RendererException {
+        try (Timings.Timer timer = phaseTimings.start("locate-documents", Timings.name(locale))) {
+            return super.locateDocuments(context, reports, locale);
+        }
+    }
+
+    private SiteRenderingContext createLocaleRenderingContext(Locale locale, List<Locale> supportedLocales)
+            throws IOException, MojoFailureException, MojoExecutionException {
         SiteRenderingContext context = createSiteRenderingContext(locale);
         context.addSiteLocales(supportedLocales);
         context.setInputEncoding(getInputEncoding());
@@ -146,12 +390,16 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
         if (validate) {
             getLog().info("Validation is switched on, xml input documents will be validated!");
         }
+        return context;
+    }
 
-        // locate all Doxia documents first
-        Map<String, DocumentRenderer> documents = locateDocuments(context, reports, locale);
-
+    private void renderDocuments(
+            Map<String, DocumentRenderer> documents, SiteRenderingContext context, File outputDirectory)
+            throws IOException, RendererException {
         // copy resources
-        siteRenderer.copyResources(context, outputDirectory);
+        try (Timings.Timer timer = phaseTimings.start("copy-resources", Timings.name(context.getLocale()))) {
+            siteRenderer.copyResources(context, outputDirectory);
+        }
 
         // and finally render Doxia documents
         List<DocumentRenderer> nonDoxiaDocuments = renderDoxiaDocuments(documents.values(), context, outputDirectory);
@@ -176,8 +424,16 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
         Map<String, Integer> counts = new TreeMap<>();
         Map<String, Integer> generatedCounts = new TreeMap<>();
 
+        String contextHash = manifest == null ? null : RenderManifest.hash(context, getRendererId());
+        int unchanged = 0;
+
         for (DocumentRenderer doc : documents) {
             if (doc instanceof DoxiaDocumentRenderer) {
+                if (contextHash != null && isUnchanged(doc, contextHash, outputDirectory)) {
+                    unchanged++;
+                    continue;
+                }
+
                 DoxiaDocumentRenderer doxia = (DoxiaDocumentRenderer) doc;
                 boolean editable = doxia.getRenderingContext().isEditable();
 
@@ -207,6 +463,16 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
             }
         }
 
+        if (unchanged > 0) {
+            getLog().info("Skipping "
+                    + buffer().strong(unchanged + " unchanged Doxia document" + (unchanged > 1 ? "s" : "")));
+        }
+
+        ConcurrentSiteRenderer concurrentSiteRenderer = new ConcurrentSiteRenderer(
+                        siteRenderer, doxia, getRenderThreads(), concurrentLocales)
+                .setRenderedPages(getRenderedPages())
+                .setTimings(phaseTimings);
+
         if (doxiaDocuments.size() > 0) {
             MessageBuilder mb = buffer();
             mb.a("Rendering ");
@@ -225,7 +491,7 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
 
             getLog().info(mb.build());
 
-            siteRenderer.render(doxiaDocuments, context, outputDirectory);
+            concurrentSiteRenderer.renderDoxiaDocuments(doxiaDocuments, context, outputDirectory);
         }
 
         if (generatedDoxiaDocuments.size() > 0) {
@@ -247,12 +513,65 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
 
             getLog().info(mb.build());
 
-            siteRenderer.render(generatedDoxiaDocuments, context, outputDirectory);
+            concurrentSiteRenderer.renderDoxiaDocuments(generatedDoxiaDocuments, context, outputDirectory);
         }
 
         return nonDoxiaDocuments;
     }
 
+    /**
+     * @return the pages to leave for rendering while an archive is written instead of writing them to the output
+     *         directory, or <code>null</code> to write every Doxia document
+     */
+    RenderedPages getRenderedPages() {
+        return null;
+    }
+
+    /**
+     * @return the id of the plugin and of the artifacts it renders with, Doxia included, as resolved for this build
+     */
+    private String getRendererId() {
+        if (mojoExecution == null) {
+            return null;
+        }
+        PluginDescriptor plugin = mojoExecution.getMojoDescriptor().getPluginDescriptor();
+        Set<String> artifacts = new TreeSet<>();
+        for (Artifact artifact : plugin.getArtifacts()) {
+            artifacts.add(artifact.getId());
+        }
+        return plugin.getId() + artifacts;
+    }
+
+    /**
+     * Check a Doxia document against the rendering manifest. A document that changed is recorded with its new hash,
+     * and its previous output is removed so that it gets rendered whatever the timestamps.
+     *
+     * @return <code>true</code> if the document was already rendered from the same inputs and its output still exists
+     */
+    private boolean isUnchanged(DocumentRenderer doc, String contextHash, File outputDirectory) throws IOException {
+        File outputFile = new File(outputDirectory, doc.getOutputName());
+        String outputPath = this.outputDirectory
+                .toPath()
+                .relativize(outputFile.toPath())
+                .toString()
+                .replace('\\', '/');
+
+        if (doc.getRenderingContext().getAttribute("velocity") != null) {
+            // Velocity templates depend on more than their source: always render
+            manifest.remove(outputPath);
+            return false;
+        }
+
+        String hash = RenderManifest.hash(doc.getRenderingContext(), contextHash);
+        if (outputFile.exists() && manifest.isUnchanged(outputPath, hash)) {
+            return true;
+        }
+
+        manifest.put(outputPath, hash);
+        Files.deleteIfExists(outputFile.toPath());
+        return false;
+    }
+
     /**
      * Render non-Doxia documents (e.g., reports) from the list given
      *
@@ -292,8 +611,71 @@ public class SiteMojo extends AbstractSiteRenderingMojo {
                 getLog().info(mb.build());
             }
 
-            siteRenderer.render(documents, context, outputDirectory);
+            ConcurrentSiteRenderer concurrentSiteRenderer =
+                    new ConcurrentSiteRenderer(siteRenderer, doxia, getReportThreads()).setTimings(phaseTimings);
+            if (getReportThreads() <= 1 && !concurrentLocales) {
+                concurrentSiteRenderer.render(documents, context, outputDirectory);
+                return;
+            }
+
+            List<ReportDocumentRenderer> concurrentReports = new ArrayList<>();
+            List<DocumentRenderer> sequentialDocuments = new ArrayList<>();
+            for (DocumentRenderer doc : documents) {
+                if (doc instanceof ReportDocumentRenderer && isThreadSafe((ReportDocumentRenderer) doc)) {
+                    concurrentReports.add((ReportDocumentRenderer) doc);
+                } else {
+                    sequentialDocuments.add(doc);
+                }
+            }
+
+            concurrentSiteRenderer.renderReports(concurrentReports, context, outputDirectory, getLog());
+            if (concurrentLocales) {
+                synchronized (sequentialReportsLock) {
+                    concurrentSiteRenderer.render(sequentialDocuments, context, outputDirectory);
+                }
+            } else {
+                concurrentSiteRenderer.render(sequentialDocuments, context, outputDirectory);
+            }
+        }
+    }
+
+    /**
+     * Check if a report can be generated in parallel with others, ie it is not listed in
+     * <code>notThreadSafeReports</code>.
+     */
+    private boolean isThreadSafe(ReportDocumentRenderer doc) {
+        String reportMojoInfo = doc.getReportMojoInfo();
+        if (reportMojoInfo == null) {
+            // not a report from a reporting plugin
+            return false;
+        }
+        if (notThreadSafeReports == null) {
+            return true;
         }
+
+        // artifactId:version:goal
+        String[] info = reportMojoInfo.split(":");
+        String artifactId = info[0];
+        String goal = info[info.length - 1];
+        for (String report : notThreadSafeReports) {
+            String trimmed = report.trim();
+            if (trimmed.equals(artifactId) || trimmed.equals(artifactId + ':' + goal)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int getRenderThreads() {
+        return renderThreads > 0 ? renderThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    private int getLocaleThreads() {
+        return localeThreads > 0 ? localeThreads : Runtime.getRuntime().availableProcessors();
+    }
+
+    private int getReportThreads() {
+        return reportThreads > 0 ? reportThreads : Runtime.getRuntime().availableProcessors();
     }
 
     private File getOutputDirectory(Locale locale) {
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.doxia.site.Skin;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+
+/**
+ * Cache of resolved skin artifacts, shared by all site mojo executions of a build through the repository session.
+ * <p>
+ * Skins are only resolved once per build when their version is fixed. Site rendering contexts are still created by
+ * the site renderer for each execution and locale, as without the cache, so that every skin check runs.
+ * </p>
+ * <p>
+ * Plugins loaded in different class realms, for example other versions of this plugin, see each other's cache as a
+ * foreign object: each execution then gets its own empty cache.
+ * </p>
+ *
+ * @since 4.0.0
+ */
+class SkinCache {
+    private static final String KEY = SkinCache.class.getName();
+
+    private final Map<String, Artifact> artifacts = new ConcurrentHashMap<>();
+
+    /**
+     * Get the skin cache of a repository session, creating it if necessary.
+     *
+     * @param repoSession the repository session
+     * @return the skin cache of the session, or a new one not shared when the session holds the cache of another
+     *         class realm
+     */
+    static SkinCache of(RepositorySystemSession repoSession) {
+        SessionData data = repoSession.getData();
+        Object cache = data.get(KEY);
+        while (cache == null) {
+            data.set(KEY, null, new SkinCache());
+            cache = data.get(KEY);
+        }
+        return cache instanceof SkinCache ? (SkinCache) cache : new SkinCache();
+    }
+
+    /**
+     * @param skin the skin from the site model
+     * @return the resolved skin artifact, or <code>null</code> if not yet resolved or not cacheable
+     */
+    Artifact getArtifact(Skin skin) {
+        String key = artifactKey(skin);
+        return key == null ? null : artifacts.get(key);
+    }
+
+    void putArtifact(Skin skin, Artifact skinArtifact) {
+        String key = artifactKey(skin);
+        if (key != null) {
+            artifacts.put(key, skinArtifact);
+        }
+    }
+
+    private static String artifactKey(Skin skin) {
+        if (skin == null || skin.getVersion() == null || skin.getVersion().endsWith(Artifact.SNAPSHOT_VERSION)) {
+            // version chosen or content changing during the build: always resolve
+            return null;
+        }
+        return skin.getGroupId() + ':' + skin.getArtifactId() + ':' + skin.getVersion();
+    }
+
+    /**
+     * @return a key of the skin artifact that changes with its content, a rebuilt SNAPSHOT skin having another key
+     */
+    static String contentKey(Artifact skinArtifact) {
+        File file = skinArtifact.getFile();
+        if (file == null) {
+            return skinArtifact.getId();
+        }
+        return skinArtifact.getId() + ':' + file.getAbsolutePath() + ':' + file.length() + ':' + file.lastModified();
+    }
+}
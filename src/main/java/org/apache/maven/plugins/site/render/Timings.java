@@ -0,0 +1,289 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
+import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Wall-clock and CPU time of the phases of a site generation and of each rendered document, recorded from any
+ * thread. CPU time is the time of the thread that ran the phase: for phases that hand work to worker threads, the
+ * time of the workers is only in the entries of the documents they rendered.
+ *
+ * @since 4.0.0
+ */
+class Timings {
+    /**
+     * Timings that record nothing.
+     */
+    static final Timings DISABLED = new Timings(null);
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final File siteDirectory;
+
+    private final long start = System.nanoTime();
+
+    private final Queue<Entry> entries = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param siteDirectory the output directory of the site, that document names are relative to
+     */
+    Timings(File siteDirectory) {
+        this.siteDirectory = siteDirectory;
+    }
+
+    boolean isEnabled() {
+        return siteDirectory != null;
+    }
+
+    /**
+     * Start measuring a phase, until the returned timer is closed.
+     *
+     * @param phase the phase, for example <code>site-model</code> or <code>report</code>
+     * @param name what the phase is run for, for example a locale or a document
+     * @return the timer to close at the end of the phase
+     */
+    Timer start(String phase, String name) {
+        return isEnabled() ? new Timer(entries, phase, name) : Timer.NOOP;
+    }
+
+    /**
+     * Start measuring the rendering of a document, as a phase named after the kind of document.
+     *
+     * @param phase the phase, or <code>null</code> for the kind of document
+     * @param docRenderer the document
+     * @param outputDirectory the output directory of the document
+     * @return the timer to close once the document is rendered
+     */
+    Timer start(String phase, DocumentRenderer docRenderer, File outputDirectory) {
+        if (!isEnabled()) {
+            return Timer.NOOP;
+        }
+        File outputFile = new File(outputDirectory, docRenderer.getOutputName());
+        String name = siteDirectory
+                .toPath()
+                .relativize(outputFile.toPath())
+                .toString()
+                .replace('\\', '/');
+        return new Timer(entries, phase == null ? kind(docRenderer) : phase, name);
+    }
+
+    static String name(Locale locale) {
+        return locale.equals(SiteTool.DEFAULT_LOCALE) ? "default" : locale.toString();
+    }
+
+    private static String kind(DocumentRenderer docRenderer) {
+        if (docRenderer instanceof ReportDocumentRenderer || docRenderer instanceof SitePluginReportDocumentRenderer) {
+            return "report";
+        } else if (docRenderer instanceof CategorySummaryDocumentRenderer) {
+            return "summary";
+        } else if (docRenderer instanceof SitemapDocumentRenderer) {
+            return "sitemap";
+        } else if (docRenderer instanceof DoxiaDocumentRenderer) {
+            return "doxia";
+        }
+        return "document";
+    }
+
+    /**
+     * @return the recorded entries, in start order
+     */
+    List<Entry> getEntries() {
+        List<Entry> result = new ArrayList<>(entries);
+        result.sort(Comparator.comparingLong(entry -> entry.start));
+        return result;
+    }
+
+    /**
+     * Write the recorded entries as JSON.
+     *
+     * @param file the JSON file
+     * @param project the id of the project
+     * @throws IOException if the file cannot be written
+     */
+    void write(File file, String project) throws IOException {
+        file.getParentFile().mkdirs();
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("{\n  \"project\": ");
+            writeString(writer, project);
+            writer.write(",\n  \"wallMillis\": " + millis(System.nanoTime() - start));
+            writer.write(",\n  \"timings\": [");
+            String separator = "\n";
+            for (Entry entry : getEntries()) {
+                writer.write(separator);
+                separator = ",\n";
+                writer.write("    {\"phase\": ");
+                writeString(writer, entry.phase);
+                writer.write(", \"name\": ");
+                writeString(writer, entry.name);
+                writer.write(", \"thread\": ");
+                writeString(writer, entry.thread);
+                writer.write(", \"startMillis\": " + millis(entry.start - start));
+                writer.write(", \"wallMillis\": " + millis(entry.wall));
+                writer.write(", \"cpuMillis\": " + (entry.cpu < 0 ? "null" : millis(entry.cpu)) + "}");
+            }
+            writer.write("\n  ]\n}\n");
+        }
+    }
+
+    /**
+     * Log the slowest entries by wall-clock time.
+     *
+     * @param log the log
+     * @param count the maximum number of entries to log
+     */
+    void logSlowest(Log log, int count) {
+        List<Entry> slowest = getEntries();
+        slowest.sort(Comparator.comparingLong((Entry entry) -> entry.wall).reversed());
+        if (slowest.isEmpty() || count <= 0) {
+            return;
+        }
+
+        log.info("Slowest site generation steps:");
+        log.info(String.format("%10s %10s  %-16s %s", "wall (ms)", "cpu (ms)", "phase", "name"));
+        for (Entry entry : slowest.subList(0, Math.min(count, slowest.size()))) {
+            log.info(String.format(
+                    "%10d %10s  %-16s %s",
+                    entry.wall / 1_000_000,
+                    entry.cpu < 0 ? "-" : String.valueOf(entry.cpu / 1_000_000),
+                    entry.phase,
+                    entry.name));
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+
+    private static void writeString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if (c < 0x20) {
+                writer.write(String.format("\\u%04x", (int) c));
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    /**
+     * A recorded phase.
+     */
+    static final class Entry {
+        private final String phase;
+
+        private final String name;
+
+        private final String thread;
+
+        private final long start;
+
+        private final long wall;
+
+        private final long cpu;
+
+        private Entry(String phase, String name, String thread, long start, long wall, long cpu) {
+            this.phase = phase;
+            this.name = name;
+            this.thread = thread;
+            this.start = start;
+            this.wall = wall;
+            this.cpu = cpu;
+        }
+
+        String getPhase() {
+            return phase;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        long getWallNanos() {
+            return wall;
+        }
+
+        /**
+         * @return the CPU time of the thread, or <code>-1</code> if not supported by the JVM
+         */
+        long getCpuNanos() {
+            return cpu;
+        }
+    }
+
+    /**
+     * Measure of a phase in progress, recorded when closed by the thread that started it.
+     */
+    static final class Timer implements AutoCloseable {
+        private static final Timer NOOP = new Timer(null, null, null);
+
+        private final Queue<Entry> entries;
+
+        private final String phase;
+
+        private final String name;
+
+        private final long startWall;
+
+        private final long startCpu;
+
+        private Timer(Queue<Entry> entries, String phase, String name) {
+            this.entries = entries;
+            this.phase = phase;
+            this.name = name;
+            this.startWall = entries == null ? 0 : System.nanoTime();
+            this.startCpu = entries == null ? 0 : cpuTime();
+        }
+
+        @Override
+        public void close() {
+            if (entries != null) {
+                long cpu = startCpu < 0 ? -1 : cpuTime() - startCpu;
+                entries.add(new Entry(
+                        phase, name, Thread.currentThread().getName(), startWall, System.nanoTime() - startWall, cpu));
+            }
+        }
+    }
+}
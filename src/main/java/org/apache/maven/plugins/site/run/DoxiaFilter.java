@@ -26,21 +26,27 @@ import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import org.apache.maven.doxia.Doxia;
 import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
 import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
 import org.apache.maven.doxia.siterenderer.RendererException;
 import org.apache.maven.doxia.siterenderer.SiteRenderer;
 import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
 import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.plugins.site.render.ConcurrentSiteRenderer;
 import org.apache.maven.plugins.site.render.ReportDocumentRenderer;
 import org.apache.maven.plugins.site.render.SitePluginReportDocumentRenderer;
 import org.eclipse.jetty.http.MimeTypes;
@@ -61,16 +67,42 @@ public class DoxiaFilter implements Filter {
 
     public static final String LOCALES_LIST_KEY = "localesList";
 
+    /**
+     * @since 4.0.0
+     */
+    public static final String RENDER_CACHE_KEY = "renderCache";
+
+    /**
+     * @since 4.0.0
+     */
+    public static final String LIVE_RELOAD_KEY = "liveReload";
+
+    /**
+     * @since 4.0.0
+     */
+    public static final String DOXIA_KEY = "doxia";
+
+    /**
+     * @since 4.0.0
+     */
+    public static final String WARM_UP_KEY = "warmUp";
+
     private ServletContext servletContext;
 
     private File outputDirectory;
 
     private SiteRenderer siteRenderer;
 
-    private Map<String, DoxiaBean> i18nDoxiaContexts;
-
     private List<Locale> localesList;
 
+    private RenderCache renderCache;
+
+    private LiveReload liveReload;
+
+    private ConcurrentSiteRenderer renderer;
+
+    private final RenderCoalescer renderings = new RenderCoalescer();
+
     /**
      * @see javax.servlet.Filter#init(javax.servlet.FilterConfig)
      */
@@ -82,9 +114,22 @@ public class DoxiaFilter implements Filter {
 
         siteRenderer = (SiteRenderer) servletContext.getAttribute(SITE_RENDERER_KEY);
 
-        i18nDoxiaContexts = (Map<String, DoxiaBean>) servletContext.getAttribute(I18N_DOXIA_CONTEXTS_KEY);
-
         localesList = (List<Locale>) servletContext.getAttribute(LOCALES_LIST_KEY);
+
+        renderCache = (RenderCache) servletContext.getAttribute(RENDER_CACHE_KEY);
+
+        liveReload = (LiveReload) servletContext.getAttribute(LIVE_RELOAD_KEY);
+
+        // requests are rendered by Jetty threads concurrently, sharing the Doxia parsers
+        renderer = new ConcurrentSiteRenderer(siteRenderer, (Doxia) servletContext.getAttribute(DOXIA_KEY), 1, true);
+
+        WarmUp warmUp = (WarmUp) servletContext.getAttribute(WARM_UP_KEY);
+        if (warmUp != null && renderCache != null) {
+            warmUp.start(
+                    this::getI18nDoxiaContexts,
+                    (locale, path, docRenderer, context) ->
+                            renderings.render(locale, path, () -> renderPage(locale, path, docRenderer, context)));
+        }
     }
 
     /**
@@ -119,6 +164,7 @@ public class DoxiaFilter implements Filter {
             }
         }
 
+        Map<String, DoxiaBean> i18nDoxiaContexts = getI18nDoxiaContexts();
         DoxiaBean doxiaBean;
         if (!localeWanted.equals(SiteTool.DEFAULT_LOCALE.toString())) {
             doxiaBean = i18nDoxiaContexts.get(localeWanted);
@@ -137,27 +183,39 @@ public class DoxiaFilter implements Filter {
         // ----------------------------------------------------------------------
         // Handle report and documents
         // ----------------------------------------------------------------------
-        if (documents.containsKey(path)) {
+        DocumentRenderer docRenderer = getDocument(documents, path);
+        if (docRenderer != null) {
             try {
-                DocumentRenderer docRenderer = documents.get(path);
-                logDocumentRenderer(path, localeWanted, docRenderer);
                 String outputName = docRenderer.getOutputName();
                 String contentType = MimeTypes.getDefaultMimeByExtension(outputName);
                 if (contentType != null) {
                     servletResponse.setContentType(contentType);
                 }
-                docRenderer.renderDocument(servletResponse.getWriter(), siteRenderer, context);
-
-                if (docRenderer instanceof ReportDocumentRenderer) {
-                    ReportDocumentRenderer reportDocumentRenderer = (ReportDocumentRenderer) docRenderer;
-                    if (reportDocumentRenderer.isExternalReport()) {
-                        Path externalReportFile = outputDirectory.toPath().resolve(outputName);
-                        servletResponse.reset();
-                        if (contentType != null) {
-                            servletResponse.setContentType(contentType);
-                        }
-                        Files.copy(externalReportFile, servletResponse.getOutputStream());
-                    }
+
+                HttpServletResponse resp = (HttpServletResponse) servletResponse;
+                boolean html = outputName.endsWith(".html");
+                if (html) {
+                    resp.setHeader("Vary", "Accept-Encoding");
+                }
+                String ifNoneMatch = req.getHeader("If-None-Match");
+
+                RenderCache.Page page = renderCache == null ? null : renderCache.get(localeWanted, path);
+                if (page == null && ifNoneMatch == null && isNotModified(docRenderer, context, req)) {
+                    // the client already has the page of the unchanged source: no need to render it to compare
+                    writeNotModified(resp, getLastModified(docRenderer, context));
+                    return;
+                }
+                if (page == null) {
+                    String locale = localeWanted;
+                    String documentPath = path;
+                    page = renderings.render(
+                            locale, documentPath, () -> renderPage(locale, documentPath, docRenderer, context));
+                }
+                boolean gzip = html && acceptsGzip(req);
+                if (page.isNotModified(ifNoneMatch, getIfModifiedSince(req))) {
+                    page.writeNotModified(resp, ifNoneMatch, gzip);
+                } else {
+                    page.writeTo(resp, gzip);
                 }
 
                 return;
@@ -169,6 +227,168 @@ public class DoxiaFilter implements Filter {
         filterChain.doFilter(servletRequest, servletResponse);
     }
 
+    /**
+     * @return the Doxia beans of each locale, replaced all at once when the site is reloaded
+     */
+    private Map<String, DoxiaBean> getI18nDoxiaContexts() {
+        return (Map<String, DoxiaBean>) servletContext.getAttribute(I18N_DOXIA_CONTEXTS_KEY);
+    }
+
+    /**
+     * Look up the document of a path. Documents located on demand report clashing sources when looked up, as
+     * rendering errors.
+     */
+    private static DocumentRenderer getDocument(Map<String, DocumentRenderer> documents, String path)
+            throws ServletException {
+        try {
+            return documents.get(path);
+        } catch (IllegalStateException e) {
+            if (e.getCause() instanceof RendererException) {
+                throw new ServletException(e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Render a page and cache it, unless a request that rendered it concurrently already did.
+     */
+    private RenderCache.Page renderPage(
+            String locale, String path, DocumentRenderer docRenderer, SiteRenderingContext context)
+            throws IOException, RendererException {
+        RenderCache.Page page = renderCache == null ? null : renderCache.get(locale, path);
+        if (page == null) {
+            long generation = renderCache == null ? 0 : renderCache.getGeneration();
+            logDocumentRenderer(path, locale, docRenderer);
+            long lastModified = getLastModified(docRenderer, context);
+            page = render(docRenderer, copy(context), docRenderer.getOutputName(), lastModified);
+            if (renderCache != null) {
+                renderCache.put(locale, path, page, generation);
+            }
+        }
+        return page;
+    }
+
+    private RenderCache.Page render(
+            DocumentRenderer docRenderer, SiteRenderingContext context, String outputName, long lastModified)
+            throws IOException, RendererException {
+        StringWriter writer = new StringWriter();
+        renderer.renderDocument(writer, docRenderer, context);
+
+        if (docRenderer instanceof ReportDocumentRenderer) {
+            ReportDocumentRenderer reportDocumentRenderer = (ReportDocumentRenderer) docRenderer;
+            if (reportDocumentRenderer.isExternalReport()) {
+                Path externalReportFile = outputDirectory.toPath().resolve(outputName);
+                return RenderCache.Page.ofContent(
+                        Files.readAllBytes(externalReportFile),
+                        Files.getLastModifiedTime(externalReportFile).toMillis());
+            }
+        }
+
+        String text = writer.toString();
+        if (liveReload != null && outputName.endsWith(".html")) {
+            text = LiveReload.inject(text);
+        }
+        return RenderCache.Page.ofText(text, context.getOutputEncoding(), lastModified);
+    }
+
+    /**
+     * @return the last modification time of the source of a document or of the site descriptor, whichever is later,
+     *         or the current time for generated documents
+     */
+    private static long getLastModified(DocumentRenderer docRenderer, SiteRenderingContext context) {
+        DocumentRenderingContext docRenderingContext = docRenderer.getRenderingContext();
+        if (docRenderingContext.getBasedir() == null || docRenderingContext.getInputPath() == null) {
+            return System.currentTimeMillis();
+        }
+
+        File source = new File(docRenderingContext.getBasedir(), docRenderingContext.getInputPath());
+        long lastModified = source.lastModified();
+        if (lastModified == 0) {
+            return System.currentTimeMillis();
+        }
+        return Math.max(lastModified, context.getSiteModel().getLastModified());
+    }
+
+    /**
+     * Check <code>If-Modified-Since</code> against the last modification time of a Doxia source, without rendering
+     * it. Other documents are generated: they have no modification time to check before they are rendered.
+     */
+    private static boolean isNotModified(
+            DocumentRenderer docRenderer, SiteRenderingContext context, HttpServletRequest req) {
+        if (!(docRenderer instanceof DoxiaDocumentRenderer)) {
+            return false;
+        }
+        long ifModifiedSince = getIfModifiedSince(req);
+        // HTTP dates have a precision of one second
+        return ifModifiedSince >= 0 && getLastModified(docRenderer, context) / 1000 * 1000 <= ifModifiedSince;
+    }
+
+    private static void writeNotModified(HttpServletResponse resp, long lastModified) {
+        resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        resp.setDateHeader("Last-Modified", lastModified / 1000 * 1000);
+        resp.setHeader("Cache-Control", "no-cache");
+    }
+
+    private static long getIfModifiedSince(HttpServletRequest req) {
+        try {
+            return req.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            // invalid date: the condition is ignored
+            return -1;
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest req) {
+        String acceptEncoding = req.getHeader("Accept-Encoding");
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            if ("gzip".equalsIgnoreCase(parameters[0].trim())) {
+                // gzip;q=0 refuses gzip
+                return parameters.length == 1
+                        || !parameters[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copy a site rendering context, so that each request renders with its own site model and template properties.
+     */
+    private static SiteRenderingContext copy(SiteRenderingContext context) {
+        SiteRenderingContext copy = new SiteRenderingContext();
+        copy.setValidate(context.isValidate());
+        copy.setTemplateName(context.getTemplateName());
+        copy.setTemplateClassLoader(context.getTemplateClassLoader());
+        if (context.getTemplateProperties() != null) {
+            copy.setTemplateProperties(new HashMap<>(context.getTemplateProperties()));
+        }
+        copy.setLocale(context.getLocale());
+        copy.addSiteLocales(context.getSiteLocales());
+        if (context.getSiteModel() != null) {
+            copy.setSiteModel(context.getSiteModel().clone());
+        }
+        copy.setDefaultTitle(context.getDefaultTitle());
+        copy.setSkin(context.getSkin());
+        if (context.getSkinModel() != null) {
+            copy.setSkinModel(context.getSkinModel().clone());
+        }
+        context.getSiteDirectories().forEach(copy::addSiteDirectory);
+        if (context.getModuleExcludes() != null) {
+            copy.setModuleExcludes(new HashMap<>(context.getModuleExcludes()));
+        }
+        copy.setInputEncoding(context.getInputEncoding());
+        copy.setOutputEncoding(context.getOutputEncoding());
+        copy.setPublishDate(context.getPublishDate());
+        copy.setProcessedContentOutput(context.getProcessedContentOutput());
+        copy.setRootDirectory(context.getRootDirectory());
+        copy.setParserConfigurator(context.getParserConfigurator());
+        return copy;
+    }
+
     private void logDocumentRenderer(String path, String locale, DocumentRenderer docRenderer) {
         String source;
         if (docRenderer instanceof DoxiaDocumentRenderer) {
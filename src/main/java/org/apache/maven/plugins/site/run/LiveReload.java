@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.run;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reload notifications sent to the pages open in browsers, as server-sent events.
+ *
+ * @since 4.0.0
+ */
+class LiveReload {
+    /**
+     * Path of the server-sent events, served by {@link LiveReloadServlet}.
+     */
+    static final String PATH = "/.site-run/reload";
+
+    private static final String SCRIPT =
+            "<script>new EventSource('" + PATH + "').onmessage = function() { location.reload(); };</script>";
+
+    private static final byte[] RELOAD = "data: reload\n\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * A comment, ignored by browsers.
+     */
+    private static final byte[] KEEP_ALIVE = ": keep-alive\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final Set<AsyncContext> clients = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Keep the response of a page waiting for reload notifications.
+     *
+     * @param asyncContext the asynchronous context of the request
+     */
+    void register(AsyncContext asyncContext) {
+        asyncContext.setTimeout(0);
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                clients.remove(asyncContext);
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                clients.remove(asyncContext);
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                clients.remove(asyncContext);
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+                // nothing to do
+            }
+        });
+        clients.add(asyncContext);
+    }
+
+    /**
+     * Tell every open page to reload.
+     *
+     * @return the number of notified pages
+     */
+    int reload() {
+        return send(RELOAD);
+    }
+
+    /**
+     * Send a comment to every open page, which keeps idle connections open and drops the ones of closed pages.
+     *
+     * @return the number of open pages
+     */
+    int keepAlive() {
+        return send(KEEP_ALIVE);
+    }
+
+    private int send(byte[] event) {
+        int notified = 0;
+        for (AsyncContext client : clients) {
+            try {
+                synchronized (client) {
+                    client.getResponse().getOutputStream().write(event);
+                    client.getResponse().flushBuffer();
+                }
+                notified++;
+            } catch (IOException | IllegalStateException e) {
+                // page closed
+                clients.remove(client);
+                client.complete();
+            }
+        }
+        return notified;
+    }
+
+    /**
+     * Add the script listening to reload notifications to an HTML page.
+     *
+     * @param html the HTML page
+     * @return the page with the script
+     */
+    static String inject(String html) {
+        int body = html.toLowerCase(Locale.ROOT).lastIndexOf("</body>");
+        if (body < 0) {
+            return html + SCRIPT;
+        }
+        return html.substring(0, body) + SCRIPT + html.substring(body);
+    }
+}
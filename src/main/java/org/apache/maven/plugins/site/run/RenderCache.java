@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.run;
+
+import javax.servlet.http.HttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.maven.plugins.site.Digests;
+
+/**
+ * Cache of pages rendered by the run server, by locale and path. The whole cache is invalidated when a site source
+ * changes, since a change to the site descriptor or to a document included by Velocity may affect any page.
+ *
+ * @since 4.0.0
+ */
+class RenderCache {
+    private final Map<String, Page> pages = new ConcurrentHashMap<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @return the current generation of the cache, to be given back when putting a page rendered from it
+     */
+    long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * @return the cached page, or <code>null</code> if not rendered since the last invalidation
+     */
+    Page get(String locale, String path) {
+        return pages.get(key(locale, path));
+    }
+
+    /**
+     * Cache a page, unless the cache was invalidated since the given generation: the page may then have been
+     * rendered from outdated sources.
+     */
+    void put(String locale, String path, Page page, long renderGeneration) {
+        String key = key(locale, path);
+        pages.put(key, page);
+        if (generation.get() != renderGeneration) {
+            pages.remove(key, page);
+        }
+    }
+
+    /**
+     * Invalidate every cached page.
+     *
+     * @return the number of pages that were cached
+     */
+    int invalidate() {
+        generation.incrementAndGet();
+        int size = pages.size();
+        pages.clear();
+        return size;
+    }
+
+    private static String key(String locale, String path) {
+        return locale + '/' + path;
+    }
+
+    /**
+     * A rendered page: text rendered by a document renderer, or content of a file written by an external report,
+     * with what HTTP validators need. The entity tag is a hash of the content; the gzip-compressed content is only
+     * computed once, when first requested.
+     */
+    static final class Page {
+        private final byte[] content;
+
+        private final String encoding;
+
+        private final long lastModified;
+
+        private final String etag;
+
+        private volatile byte[] gzipped;
+
+        private Page(byte[] content, String encoding, long lastModified) {
+            this.content = content;
+            this.encoding = encoding;
+            // HTTP dates have a precision of one second
+            this.lastModified = lastModified / 1000 * 1000;
+            this.etag = '"' + hash(content) + '"';
+        }
+
+        /**
+         * @param text the rendered text
+         * @param encoding the output encoding
+         * @param lastModified the last modification time of the sources of the page
+         */
+        static Page ofText(String text, String encoding, long lastModified) throws UnsupportedEncodingException {
+            return new Page(text.getBytes(encoding), encoding, lastModified);
+        }
+
+        /**
+         * @param content the content of the page, already encoded
+         * @param lastModified the last modification time of the content
+         */
+        static Page ofContent(byte[] content, long lastModified) {
+            return new Page(content, null, lastModified);
+        }
+
+        String getETag() {
+            return etag;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Check the validators of a conditional request: <code>If-Modified-Since</code> is only considered without
+         * <code>If-None-Match</code>.
+         *
+         * @param ifNoneMatch the <code>If-None-Match</code> header, or <code>null</code>
+         * @param ifModifiedSince the <code>If-Modified-Since</code> date, or <code>-1</code>
+         * @return <code>true</code> if the client already has this page
+         */
+        boolean isNotModified(String ifNoneMatch, long ifModifiedSince) {
+            if (ifNoneMatch != null) {
+                return matchingETag(ifNoneMatch) != null;
+            }
+            return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+        }
+
+        /**
+         * @param ifNoneMatch the <code>If-None-Match</code> header
+         * @return the first tag of the header matching the plain or gzip ETag of this page, <code>*</code>, or
+         *         <code>null</code> if none matches
+         */
+        private String matchingETag(String ifNoneMatch) {
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if ("*".equals(tag) || etag.equals(tag) || gzipETag().equals(tag)) {
+                    return tag;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @param ifNoneMatch the <code>If-None-Match</code> header, or <code>null</code>
+         * @param gzip <code>true</code> if the gzip-compressed content would be sent
+         * @return the ETag of a <code>304 Not Modified</code> response: the one the client has, else the one of the
+         *         content that would be sent
+         */
+        String getNotModifiedETag(String ifNoneMatch, boolean gzip) {
+            String tag = ifNoneMatch == null ? null : matchingETag(ifNoneMatch);
+            if (tag == null || "*".equals(tag)) {
+                return gzip ? gzipETag() : etag;
+            }
+            return tag;
+        }
+
+        /**
+         * Write the validators and content of the page. The content type is expected to be already set.
+         *
+         * @param response the response
+         * @param gzip <code>true</code> to send the gzip-compressed content
+         * @throws IOException if the page cannot be written
+         */
+        void writeTo(HttpServletResponse response, boolean gzip) throws IOException {
+            byte[] body = content;
+            if (gzip) {
+                body = gzipped();
+                response.setHeader("Content-Encoding", "gzip");
+                response.setHeader("ETag", gzipETag());
+            } else {
+                response.setHeader("ETag", etag);
+            }
+            writeHeaders(response);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+
+        /**
+         * Write the validators of the page, for a <code>304 Not Modified</code> response.
+         *
+         * @param response the response
+         * @param ifNoneMatch the <code>If-None-Match</code> header, or <code>null</code>
+         * @param gzip <code>true</code> if the gzip-compressed content would be sent
+         */
+        void writeNotModified(HttpServletResponse response, String ifNoneMatch, boolean gzip) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader("ETag", getNotModifiedETag(ifNoneMatch, gzip));
+            writeHeaders(response);
+        }
+
+        private void writeHeaders(HttpServletResponse response) {
+            if (encoding != null) {
+                response.setCharacterEncoding(encoding);
+            }
+            response.setDateHeader("Last-Modified", lastModified);
+            // browsers must check for changes on each request, as sources may change at any time
+            response.setHeader("Cache-Control", "no-cache");
+        }
+
+        byte[] gzipped() throws IOException {
+            byte[] result = gzipped;
+            if (result == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(content);
+                }
+                result = out.toByteArray();
+                gzipped = result;
+            }
+            return result;
+        }
+
+        private String gzipETag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+
+        private static String hash(byte[] content) {
+            // half of the hash is plenty to tell versions of a page apart
+            return Digests.toHex(Digests.newSha256().digest(content), 16);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.run;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.maven.doxia.siterenderer.RendererException;
+
+/**
+ * Renders each document of the run server by one request at a time: requests for a document that is being rendered
+ * wait for that rendering and share its page, or its failure, instead of rendering the document again. Renderers
+ * of different documents run concurrently.
+ *
+ * @since 4.0.0
+ */
+class RenderCoalescer {
+    private final Map<String, CompletableFuture<RenderCache.Page>> renderings = new ConcurrentHashMap<>();
+
+    /**
+     * Render a page, or wait for the rendering of the same page already in progress.
+     *
+     * @param locale the locale of the page
+     * @param path the path of the page
+     * @param render the rendering of the page
+     * @return the rendered page
+     * @throws RendererException if the page fails to render
+     * @throws IOException if the page cannot be read
+     */
+    RenderCache.Page render(String locale, String path, Render render) throws RendererException, IOException {
+        String key = locale + '/' + path;
+        CompletableFuture<RenderCache.Page> rendering = new CompletableFuture<>();
+        CompletableFuture<RenderCache.Page> inProgress = renderings.putIfAbsent(key, rendering);
+        if (inProgress != null) {
+            return await(inProgress, key);
+        }
+
+        try {
+            RenderCache.Page page = render.render();
+            rendering.complete(page);
+            return page;
+        } catch (RendererException | IOException | RuntimeException | Error e) {
+            rendering.completeExceptionally(e);
+            throw e;
+        } finally {
+            renderings.remove(key, rendering);
+        }
+    }
+
+    private static RenderCache.Page await(CompletableFuture<RenderCache.Page> rendering, String key)
+            throws RendererException, IOException {
+        try {
+            return rendering.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RendererException("Interrupted while waiting for the rendering of " + key, e);
+        } catch (ExecutionException e) {
+            Throwable failure = e.getCause();
+            if (failure instanceof RendererException) {
+                throw (RendererException) failure;
+            } else if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            throw (Error) failure;
+        }
+    }
+
+    /**
+     * The rendering of a page.
+     */
+    interface Render {
+        RenderCache.Page render() throws RendererException, IOException;
+    }
+}
@@ -24,27 +24,45 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.InetSocketAddress;
-import java.util.HashMap;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.doxia.Doxia;
+import org.apache.maven.doxia.parser.module.ParserModuleManager;
 import org.apache.maven.doxia.site.inheritance.SiteModelInheritanceAssembler;
 import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.RendererException;
 import org.apache.maven.doxia.siterenderer.SiteRenderer;
 import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext.SiteDirectory;
 import org.apache.maven.doxia.tools.SiteTool;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.plugins.site.Workers;
 import org.apache.maven.plugins.site.render.AbstractSiteRenderingMojo;
 import org.apache.maven.reporting.exec.MavenReportExecution;
 import org.apache.maven.reporting.exec.MavenReportExecutor;
 import org.codehaus.plexus.util.IOUtil;
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.webapp.WebAppContext;
 
 import static org.apache.maven.shared.utils.logging.MessageUtils.buffer;
@@ -76,12 +94,93 @@ public class SiteRunMojo extends AbstractSiteRenderingMojo {
     @Parameter(property = "port", defaultValue = "8080")
     private int port;
 
+    /**
+     * Maximum number of threads of the HTTP server, thus of requests handled concurrently. Concurrent requests for
+     * the same page are rendered once; Doxia sources are parsed one at a time, but merged into the skin concurrently.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "serverThreads", defaultValue = "32")
+    private int serverThreads;
+
+    /**
+     * Whether to keep rendered pages in memory, to serve them again without rendering them. Cached pages are
+     * discarded as soon as a file changes in the site directory or the generated site directory; pages of reports
+     * are not refreshed when only the project sources they report on change.
+     * <p>
+     * Without the cache, only conditional requests with <code>If-Modified-Since</code> alone on pages of Doxia sources
+     * are answered without rendering: requests with <code>If-None-Match</code>, which browsers send once they got an
+     * <code>ETag</code>, render the page to compare its content, and only save the bandwidth of sending it.
+     * </p>
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "renderCache", defaultValue = "false")
+    private boolean renderCache;
+
+    /**
+     * Whether to render every document in the background once the server is started, so that pages are already in
+     * the render cache when first requested: index pages first, then pages linked from menus, then all others.
+     * Documents are rendered again in the background after each change. Needs <code>renderCache</code>.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "warmUp", defaultValue = "false")
+    private boolean warmUp;
+
+    /**
+     * Number of threads used to render documents in the background when <code>warmUp</code> is enabled.
+     * A value of <code>0</code> uses as many threads as available processors.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "warmUpThreads", defaultValue = "2")
+    private int warmUpThreads;
+
+    /**
+     * Whether to reload pages open in browsers when a site source changes. The documents of the site are located
+     * again whenever a file changes in the site directory or the generated site directory, whatever this setting.
+     *
+     * @since 4.0.0
+     */
+    @Parameter(property = "liveReload", defaultValue = "false")
+    private boolean liveReload;
+
+    /**
+     * Threads needed by the HTTP server: acceptor, selector and reserved thread, plus at least one for requests.
+     */
+    private static final int MIN_SERVER_THREADS = 4;
+
+    /**
+     * Delay in milliseconds between reloads of the site, so that a burst of file changes is handled at once.
+     */
+    private static final long RELOAD_DELAY = 200;
+
+    /**
+     * Delay in seconds between keep-alive comments sent to pages waiting for reload notifications, so that idle
+     * connections are not closed by proxies or browsers.
+     */
+    private static final long KEEP_ALIVE_DELAY = 15;
+
+    /**
+     * The last modification time of the skin when the site rendering contexts were created.
+     */
+    private long skinLastModified;
+
+    /**
+     * The Doxia parsers, shared by concurrent requests.
+     */
+    private final Doxia doxia;
+
     @Inject
     public SiteRunMojo(
             SiteModelInheritanceAssembler assembler,
             SiteRenderer siteRenderer,
-            MavenReportExecutor mavenReportExecutor) {
-        super(assembler, siteRenderer, mavenReportExecutor);
+            MavenReportExecutor mavenReportExecutor,
+            ParserModuleManager parserModuleManager,
+            Doxia doxia) {
+        super(assembler, siteRenderer, mavenReportExecutor, parserModuleManager);
+        this.doxia = doxia;
     }
 
     /**
@@ -91,7 +190,19 @@ public class SiteRunMojo extends AbstractSiteRenderingMojo {
     public void execute() throws MojoExecutionException, MojoFailureException {
         checkInputEncoding();
 
-        Server server = new Server(InetSocketAddress.createUnresolved(host, port));
+        if (serverThreads < MIN_SERVER_THREADS) {
+            throw new MojoExecutionException(
+                    "serverThreads must be at least " + MIN_SERVER_THREADS + ", was " + serverThreads);
+        }
+
+        QueuedThreadPool threadPool = new QueuedThreadPool(serverThreads);
+        threadPool.setName("site-run");
+        Server server = new Server(threadPool);
+        // a single acceptor and selector, leaving the other threads to handle requests
+        ServerConnector connector = new ServerConnector(server, 1, 1);
+        connector.setHost(host);
+        connector.setPort(port);
+        server.addConnector(connector);
         server.setStopAtShutdown(true);
 
         WebAppContext webapp = createWebApplication();
@@ -99,20 +210,123 @@ public class SiteRunMojo extends AbstractSiteRenderingMojo {
 
         server.setHandler(webapp);
 
-        try {
-            server.start();
-        } catch (Exception e) {
-            throw new MojoExecutionException("Error executing Jetty", e);
+        ScheduledExecutorService reloader = newReloader();
+        LiveReload reload = (LiveReload) webapp.getAttribute(DoxiaFilter.LIVE_RELOAD_KEY);
+        if (reload != null) {
+            reloader.scheduleWithFixedDelay(reload::keepAlive, KEEP_ALIVE_DELAY, KEEP_ALIVE_DELAY, TimeUnit.SECONDS);
         }
+        try (WarmUp warmUp = (WarmUp) webapp.getAttribute(DoxiaFilter.WARM_UP_KEY);
+                SiteWatcher watcher = watch(webapp, reloader)) {
+            try {
+                server.start();
+            } catch (Exception e) {
+                throw new MojoExecutionException("Error executing Jetty", e);
+            }
 
-        getLog().info(buffer().a("Started Jetty on ").strong(server.getURI()).build());
+            getLog().info(buffer().a("Started Jetty on ")
+                    .strong(server.getURI())
+                    .build());
+
+            // Watch it
+            try {
+                server.getThreadPool().join();
+            } catch (InterruptedException e) {
+                getLog().warn("Jetty was interrupted", e);
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Unable to watch site sources", e);
+        } finally {
+            reloader.shutdownNow();
+        }
+    }
+
+    private static ScheduledExecutorService newReloader() {
+        return Executors.newSingleThreadScheduledExecutor(Workers.threadFactory("site-reload"));
+    }
+
+    /**
+     * Watch the site sources: when they change, invalidate the render cache right away, then locate the documents
+     * again and reload pages open in browsers once no more changes happened for a short delay.
+     */
+    private SiteWatcher watch(WebAppContext webapp, ScheduledExecutorService reloader) throws IOException {
+        RenderCache cache = (RenderCache) webapp.getAttribute(DoxiaFilter.RENDER_CACHE_KEY);
+        LiveReload reload = (LiveReload) webapp.getAttribute(DoxiaFilter.LIVE_RELOAD_KEY);
+        WarmUp warmUp = (WarmUp) webapp.getAttribute(DoxiaFilter.WARM_UP_KEY);
+        List<Locale> localesList = getLocales();
+        AtomicReference<ScheduledFuture<?>> pendingReload = new AtomicReference<>();
+        Set<File> changes = ConcurrentHashMap.newKeySet();
+
+        return new SiteWatcher(
+                Arrays.asList(siteDirectory, generatedSiteDirectory),
+                changed -> {
+                    getLog().debug("Changed " + changed);
+                    if (cache != null) {
+                        cache.invalidate();
+                    }
+                    changes.add(changed.toFile().getAbsoluteFile());
+                    ScheduledFuture<?> previous = pendingReload.getAndSet(reloader.schedule(
+                            () -> {
+                                // files changed during the reload are handled by the next one
+                                Set<File> changedFiles = new HashSet<>(changes);
+                                changes.removeAll(changedFiles);
+                                reloadSite(webapp, changedFiles, localesList, cache, reload, warmUp);
+                            },
+                            RELOAD_DELAY,
+                            TimeUnit.MILLISECONDS));
+                    if (previous != null) {
+                        previous.cancel(false);
+                    }
+                },
+                getLog());
+    }
 
-        // Watch it
+    /**
+     * Locate the documents of each locale again after files changed: the site rendering contexts are created again
+     * only when a site descriptor or the skin changed, else only the directories of the changed files are listed
+     * again. Requests get the documents of all locales at once, either all reloaded or none.
+     */
+    private void reloadSite(
+            WebAppContext webapp,
+            Set<File> changedFiles,
+            List<Locale> localesList,
+            RenderCache cache,
+            LiveReload reload,
+            WarmUp warmUp) {
         try {
-            server.getThreadPool().join();
-        } catch (InterruptedException e) {
-            getLog().warn("Jetty was interrupted", e);
+            Map<String, DoxiaBean> previous =
+                    (Map<String, DoxiaBean>) webapp.getAttribute(DoxiaFilter.I18N_DOXIA_CONTEXTS_KEY);
+            Map<String, DoxiaBean> i18nDoxiaContexts;
+            if (isContextChanged(
+                    changedFiles, previous.values().iterator().next().getContext())) {
+                i18nDoxiaContexts = createDoxiaBeans(localesList);
+            } else {
+                i18nDoxiaContexts = new LinkedHashMap<>();
+                for (Locale locale : localesList) {
+                    DoxiaBean doxiaBean = previous.get(getKey(locale));
+                    SiteRenderingContext i18nContext = doxiaBean.getContext();
+                    if (isResourceChanged(changedFiles, i18nContext)) {
+                        siteRenderer.copyResources(i18nContext, getOutputDirectory(locale));
+                    }
+                    i18nDoxiaContexts.put(
+                            getKey(locale),
+                            new DoxiaBean(i18nContext, refreshDocuments(doxiaBean.getDocuments(), changedFiles)));
+                }
+            }
+            webapp.setAttribute(DoxiaFilter.I18N_DOXIA_CONTEXTS_KEY, Collections.unmodifiableMap(i18nDoxiaContexts));
+        } catch (Exception e) {
+            getLog().warn("Unable to reload site: " + e.getMessage(), e);
+            return;
         }
+
+        if (cache != null) {
+            // pages may have been rendered from the previous documents in the meantime
+            cache.invalidate();
+        }
+        if (warmUp != null) {
+            warmUp.restart();
+        }
+        int notified = reload == null ? 0 : reload.reload();
+        getLog().info("Reloaded site" + (notified > 0 ? ", refreshing " + notified + " open page(s)" : ""));
     }
 
     private WebAppContext createWebApplication() throws MojoExecutionException {
@@ -131,46 +345,123 @@ public class SiteRunMojo extends AbstractSiteRenderingMojo {
         webapp.setResourceBase(tempWebappDirectory.getAbsolutePath());
         webapp.setAttribute(DoxiaFilter.OUTPUT_DIRECTORY_KEY, tempWebappDirectory);
         webapp.setAttribute(DoxiaFilter.SITE_RENDERER_KEY, siteRenderer);
+        webapp.setAttribute(DoxiaFilter.DOXIA_KEY, doxia);
         webapp.getInitParams().put("org.mortbay.jetty.servlet.Default.useFileMappedBuffer", "false");
+        // static resources can then be revalidated too
+        webapp.getInitParams().put("org.eclipse.jetty.servlet.Default.etags", "true");
 
         // For external reports
         project.getReporting().setOutputDirectory(tempWebappDirectory.getAbsolutePath());
 
         List<Locale> localesList = getLocales();
         webapp.setAttribute(DoxiaFilter.LOCALES_LIST_KEY, localesList);
+        if (renderCache) {
+            webapp.setAttribute(DoxiaFilter.RENDER_CACHE_KEY, new RenderCache());
+        }
+        if (liveReload) {
+            webapp.setAttribute(DoxiaFilter.LIVE_RELOAD_KEY, new LiveReload());
+        }
+        if (warmUp) {
+            if (renderCache) {
+                int threads =
+                        warmUpThreads > 0 ? warmUpThreads : Runtime.getRuntime().availableProcessors();
+                webapp.setAttribute(DoxiaFilter.WARM_UP_KEY, new WarmUp(threads, getLog()));
+            } else {
+                getLog().warn("warmUp needs renderCache: documents will only be rendered when requested");
+            }
+        }
 
         try {
-            Map<String, DoxiaBean> i18nDoxiaContexts = new HashMap<>();
+            webapp.setAttribute(
+                    DoxiaFilter.I18N_DOXIA_CONTEXTS_KEY, Collections.unmodifiableMap(createDoxiaBeans(localesList)));
+        } catch (Exception e) {
+            throw new MojoExecutionException("Unable to set up webapp", e);
+        }
+        return webapp;
+    }
 
-            for (Locale locale : localesList) {
-                SiteRenderingContext i18nContext = createSiteRenderingContext(locale);
-                i18nContext.setInputEncoding(getInputEncoding());
-                i18nContext.setOutputEncoding(getOutputEncoding());
+    /**
+     * Create the site rendering context of each locale, locate its documents and copy its resources. Reports are only
+     * prepared the first time.
+     *
+     * @return the Doxia beans of each locale, by locale or <code>default</code> for the default locale
+     */
+    private Map<String, DoxiaBean> createDoxiaBeans(List<Locale> localesList)
+            throws IOException, MojoExecutionException, MojoFailureException, RendererException {
+        Map<String, DoxiaBean> i18nDoxiaContexts = new LinkedHashMap<>();
+        for (Locale locale : localesList) {
+            i18nDoxiaContexts.put(getKey(locale), createDoxiaBean(locale));
+        }
+        skinLastModified =
+                getSkinLastModified(i18nDoxiaContexts.values().iterator().next().getContext());
+        return i18nDoxiaContexts;
+    }
 
-                File outputDirectory = getOutputDirectory(locale);
-                List<MavenReportExecution> reports = getReports(outputDirectory);
+    private DoxiaBean createDoxiaBean(Locale locale)
+            throws IOException, MojoExecutionException, MojoFailureException, RendererException {
+        SiteRenderingContext i18nContext = createSiteRenderingContext(locale);
+        i18nContext.setInputEncoding(getInputEncoding());
+        i18nContext.setOutputEncoding(getOutputEncoding());
 
-                Map<String, DocumentRenderer> i18nDocuments = locateDocuments(i18nContext, reports, locale);
-                DoxiaBean doxiaBean = new DoxiaBean(i18nContext, i18nDocuments);
+        File outputDirectory = getOutputDirectory(locale);
+        List<MavenReportExecution> reports = getReports(outputDirectory);
 
-                if (!locale.equals(SiteTool.DEFAULT_LOCALE)) {
-                    i18nDoxiaContexts.put(locale.toString(), doxiaBean);
-                } else {
-                    i18nDoxiaContexts.put("default", doxiaBean);
-                }
+        Map<String, DocumentRenderer> i18nDocuments = locateDocuments(i18nContext, reports, locale);
+        DoxiaBean doxiaBean = new DoxiaBean(i18nContext, i18nDocuments);
 
-                if (!locale.equals(SiteTool.DEFAULT_LOCALE)) {
-                    siteRenderer.copyResources(i18nContext, new File(tempWebappDirectory, locale.toString()));
-                } else {
-                    siteRenderer.copyResources(i18nContext, tempWebappDirectory);
-                }
+        siteRenderer.copyResources(i18nContext, outputDirectory);
+
+        return doxiaBean;
+    }
+
+    private static String getKey(Locale locale) {
+        return locale.equals(SiteTool.DEFAULT_LOCALE) ? "default" : locale.toString();
+    }
+
+    /**
+     * @return <code>true</code> if a site descriptor or the skin changed, which needs new site rendering contexts
+     */
+    private boolean isContextChanged(Set<File> changedFiles, SiteRenderingContext context) {
+        File descriptorDirectory = siteDirectory.getAbsoluteFile();
+        for (File changed : changedFiles) {
+            // site.xml and site_<locale>.xml, or any file when changes overflowed in the site directory
+            if (changed.equals(descriptorDirectory)
+                    || (descriptorDirectory.equals(changed.getParentFile())
+                            && changed.getName().matches("site(_.*)?\\.xml"))) {
+                return true;
             }
+        }
+        return getSkinLastModified(context) != skinLastModified;
+    }
 
-            webapp.setAttribute(DoxiaFilter.I18N_DOXIA_CONTEXTS_KEY, i18nDoxiaContexts);
-        } catch (Exception e) {
-            throw new MojoExecutionException("Unable to set up webapp", e);
+    private static long getSkinLastModified(SiteRenderingContext context) {
+        Artifact skin = context.getSkin();
+        return (skin == null || skin.getFile() == null) ? 0 : skin.getFile().lastModified();
+    }
+
+    /**
+     * @return <code>true</code> if a file changed in the resources of a site directory
+     */
+    private static boolean isResourceChanged(Set<File> changedFiles, SiteRenderingContext context) {
+        for (SiteDirectory siteDirectory : context.getSiteDirectories()) {
+            Path resources = new File(siteDirectory.getPath(), "resources")
+                    .getAbsoluteFile()
+                    .toPath();
+            for (File changed : changedFiles) {
+                if (changed.toPath().startsWith(resources)) {
+                    return true;
+                }
+            }
         }
-        return webapp;
+        return false;
+    }
+
+    /**
+     * Documents are looked up when requested, so that the site is served without scanning site directories first.
+     */
+    @Override
+    protected boolean isDocumentLookupDeferred() {
+        return true;
     }
 
     private File getOutputDirectory(Locale locale) {
@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.run;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.maven.doxia.site.Menu;
+import org.apache.maven.doxia.site.MenuItem;
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.RendererException;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugins.site.Workers;
+
+/**
+ * Renders every document of the run server in the background, so that pages are in the render cache before being
+ * requested. Index pages come first, then pages linked from the menus of the site model, then all other pages.
+ * <p>
+ * Warming up again, for example once documents were located again after a change, drops the pages still waiting
+ * from the previous warm-up.
+ * </p>
+ *
+ * @since 4.0.0
+ */
+class WarmUp implements Closeable {
+    private static final String INDEX = "index.html";
+
+    private final ExecutorService executor;
+
+    private final Log log;
+
+    private final AtomicLong round = new AtomicLong();
+
+    private volatile Supplier<Map<String, DoxiaBean>> i18nDoxiaContexts;
+
+    private volatile PageRenderer renderer;
+
+    /**
+     * @param threads the number of threads rendering pages
+     * @param log the log
+     */
+    WarmUp(int threads, Log log) {
+        ThreadFactory threadFactory = Workers.threadFactory("site-warm-up");
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = threadFactory.newThread(runnable);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        this.log = log;
+    }
+
+    /**
+     * Start warming up.
+     *
+     * @param i18nDoxiaContexts the Doxia beans of each locale, by locale or <code>default</code> for the default
+     *            locale, read again on each warm-up
+     * @param renderer the renderer of pages
+     */
+    void start(Supplier<Map<String, DoxiaBean>> i18nDoxiaContexts, PageRenderer renderer) {
+        this.i18nDoxiaContexts = i18nDoxiaContexts;
+        this.renderer = renderer;
+        restart();
+    }
+
+    /**
+     * Warm up again with the current documents, if warm-up was started.
+     */
+    void restart() {
+        if (renderer == null) {
+            return;
+        }
+
+        Map<String, DoxiaBean> contexts = i18nDoxiaContexts.get();
+        List<String[]> pages = prioritize(contexts);
+        long currentRound = round.incrementAndGet();
+        AtomicInteger remaining = new AtomicInteger(pages.size());
+        AtomicInteger failures = new AtomicInteger();
+        long start = System.currentTimeMillis();
+
+        for (String[] page : pages) {
+            executor.execute(() -> {
+                if (round.get() != currentRound) {
+                    return;
+                }
+                try {
+                    warmUp(contexts, page[0], page[1]);
+                } catch (IOException | RendererException | RuntimeException e) {
+                    failures.incrementAndGet();
+                    log.debug("Unable to pre-render " + page[0] + '/' + page[1] + ": " + e.getMessage(), e);
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    log.info("Pre-rendered " + (pages.size() - failures.get()) + " page(s) in "
+                            + (System.currentTimeMillis() - start) + " ms"
+                            + (failures.get() > 0 ? ", " + failures.get() + " failed" : ""));
+                }
+            });
+        }
+    }
+
+    private void warmUp(Map<String, DoxiaBean> contexts, String locale, String path)
+            throws IOException, RendererException {
+        DoxiaBean doxiaBean = contexts.get(locale.isEmpty() ? "default" : locale);
+        DocumentRenderer docRenderer =
+                doxiaBean == null ? null : doxiaBean.getDocuments().get(path);
+        if (docRenderer != null) {
+            renderer.render(locale, path, docRenderer, doxiaBean.getContext());
+        }
+    }
+
+    /**
+     * @return the locale and path of every page, index pages first, then pages linked from menus
+     */
+    static List<String[]> prioritize(Map<String, DoxiaBean> i18nDoxiaContexts) {
+        Set<String> indexes = new LinkedHashSet<>();
+        Set<String> linked = new LinkedHashSet<>();
+        Set<String> others = new LinkedHashSet<>();
+
+        for (Map.Entry<String, DoxiaBean> entry : i18nDoxiaContexts.entrySet()) {
+            String locale = "default".equals(entry.getKey()) ? "" : entry.getKey();
+            DoxiaBean doxiaBean = entry.getValue();
+
+            Set<String> menuLinks = new LinkedHashSet<>();
+            SiteModel siteModel = doxiaBean.getContext().getSiteModel();
+            if (siteModel != null
+                    && siteModel.getBody() != null
+                    && siteModel.getBody().getMenus() != null) {
+                for (Menu menu : siteModel.getBody().getMenus()) {
+                    addLinks(menuLinks, menu.getItems());
+                }
+            }
+
+            for (String path : doxiaBean.getDocuments().keySet()) {
+                if (path.equals(INDEX) || path.endsWith('/' + INDEX)) {
+                    indexes.add(locale + '\n' + path);
+                }
+            }
+            for (String path : menuLinks) {
+                if (doxiaBean.getDocuments().containsKey(path)) {
+                    linked.add(locale + '\n' + path);
+                }
+            }
+            for (String path : doxiaBean.getDocuments().keySet()) {
+                others.add(locale + '\n' + path);
+            }
+        }
+
+        Set<String> ordered = new LinkedHashSet<>(indexes);
+        ordered.addAll(linked);
+        ordered.addAll(others);
+        List<String[]> pages = new ArrayList<>(ordered.size());
+        for (String page : ordered) {
+            pages.add(page.split("\n", 2));
+        }
+        return pages;
+    }
+
+    private static void addLinks(Set<String> links, List<MenuItem> items) {
+        if (items == null) {
+            return;
+        }
+        for (MenuItem item : items) {
+            String href = item.getHref();
+            if (href != null) {
+                int end = href.indexOf('#');
+                href = end < 0 ? href : href.substring(0, end);
+                while (href.startsWith("./")) {
+                    href = href.substring(2);
+                }
+                if (href.isEmpty() || href.endsWith("/")) {
+                    href += INDEX;
+                }
+                links.add(href);
+            }
+            addLinks(links, item.getItems());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Renders a page into the render cache.
+     */
+    interface PageRenderer {
+        void render(String locale, String path, DocumentRenderer docRenderer, SiteRenderingContext context)
+                throws IOException, RendererException;
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.maven.plugins.site.deploy;
 import java.io.File;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -217,6 +218,71 @@ public abstract class AbstractSiteDeployWebDavTest extends AbstractMojoTestCase
         }
     }
 
+    @Test
+    public void differentialDavDeploy() throws Exception {
+        SimpleDavServerHandler simpleDavServerHandler = new SimpleDavServerHandler(siteTargetPath);
+
+        try {
+            File pomFile = getTestFile("src/test/resources/unit/deploy-dav/pom.xml");
+            SiteMavenProjectStub siteMavenProjectStub = new SiteMavenProjectStub("deploy-dav");
+            siteMavenProjectStub
+                    .getDistributionManagement()
+                    .getSite()
+                    .setUrl("dav:http://localhost:" + simpleDavServerHandler.getPort() + "/site/");
+            File inputDirectory = new File("src/test/resources/unit/deploy-dav/target/site");
+
+            for (int i = 0; i < 2; i++) {
+                AbstractMojo mojo = getMojo(pomFile);
+                setVariableValueToObject(mojo, "project", siteMavenProjectStub);
+                setVariableValueToObject(mojo, "settings", new Settings());
+                setVariableValueToObject(mojo, "inputDirectory", inputDirectory);
+                setVariableValueToObject(mojo, "differential", true);
+                simpleDavServerHandler.httpRequests.clear();
+                mojo.execute();
+            }
+
+            assertContentInFiles();
+            assertTrue(new File(siteTargetPath, "site" + File.separator + ".site-manifest.properties").exists());
+
+            // nothing changed since the first deploy: only the manifest is uploaded again
+            List<String> puts = new ArrayList<>();
+            for (HttpRequest rq : simpleDavServerHandler.httpRequests) {
+                if ("PUT".equalsIgnoreCase(rq.method)) {
+                    puts.add(rq.path);
+                }
+            }
+            assertEquals(Collections.singletonList("/site/.site-manifest.properties"), puts);
+        } finally {
+            simpleDavServerHandler.stop();
+        }
+    }
+
+    @Test
+    public void parallelDavDeploy() throws Exception {
+        SimpleDavServerHandler simpleDavServerHandler = new SimpleDavServerHandler(siteTargetPath);
+
+        try {
+            File pomFile = getTestFile("src/test/resources/unit/deploy-dav/pom.xml");
+            AbstractMojo mojo = getMojo(pomFile);
+            SiteMavenProjectStub siteMavenProjectStub = new SiteMavenProjectStub("deploy-dav");
+            siteMavenProjectStub
+                    .getDistributionManagement()
+                    .getSite()
+                    .setUrl("dav:http://localhost:" + simpleDavServerHandler.getPort() + "/site/");
+
+            setVariableValueToObject(mojo, "project", siteMavenProjectStub);
+            setVariableValueToObject(mojo, "settings", new Settings());
+            setVariableValueToObject(
+                    mojo, "inputDirectory", new File("src/test/resources/unit/deploy-dav/target/site"));
+            setVariableValueToObject(mojo, "uploadThreads", 3);
+            mojo.execute();
+
+            assertContentInFiles();
+        } finally {
+            simpleDavServerHandler.stop();
+        }
+    }
+
     private void assertContentInFiles() throws Exception {
         File htmlFile = new File(siteTargetPath, "site" + File.separator + "index.html");
         assertTrue(htmlFile.exists());
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.wagon.CommandExecutor;
+import org.apache.maven.wagon.Wagon;
+import org.apache.maven.wagon.repository.Repository;
+import org.codehaus.plexus.util.IOUtil;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Deploy of the site in a single archive, expanded on the target by a wagon able to run commands.
+ */
+public class ArchiveDeployTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final List<String> uploads = new ArrayList<>();
+
+    private final List<String> commands = new ArrayList<>();
+
+    private final Map<String, String> entries = new TreeMap<>();
+
+    @Test
+    public void testPutArchive() throws Exception {
+        Map<String, File> files = new TreeMap<>();
+        files.put("index.html", page("index.html", "index"));
+        files.put("fr/module/page.html", page("page.html", "page"));
+
+        Repository repository = new Repository("site", "scp://example.org/var/www/o'site");
+        assertTrue(AbstractDeployMojo.putArchive(files, repository, newWagon(), new SystemStreamLog()));
+
+        assertEquals(1, uploads.size());
+        String archive = uploads.get(0);
+        assertTrue(archive, archive.startsWith("site-deploy") && archive.endsWith(".zip"));
+
+        Map<String, String> expected = new TreeMap<>();
+        expected.put("index.html", "index");
+        expected.put("fr/module/page.html", "page");
+        assertEquals(expected, entries);
+
+        String remoteArchive = "'/var/www/o'\\''site/" + archive + "'";
+        assertEquals(1, commands.size());
+        assertEquals(
+                "unzip -o -qq -d '/var/www/o'\\''site' " + remoteArchive + " && rm -f " + remoteArchive,
+                commands.get(0));
+    }
+
+    @Test
+    public void testPutArchiveOutsideBaseDirectory() throws Exception {
+        Map<String, File> files = new TreeMap<>();
+        files.put("../parent/index.html", page("index.html", "index"));
+
+        Repository repository = new Repository("site", "scp://example.org/var/www/site/module");
+        assertFalse(AbstractDeployMojo.putArchive(files, repository, newWagon(), new SystemStreamLog()));
+        assertTrue(uploads.isEmpty());
+        assertTrue(commands.isEmpty());
+    }
+
+    @Test
+    public void testPutArchiveToFile() throws Exception {
+        Map<String, File> files = new TreeMap<>();
+        files.put("index.html", page("index.html", "index"));
+
+        Repository repository = new Repository("site", "file:///var/www/site");
+        assertFalse(AbstractDeployMojo.putArchive(files, repository, newWagon(), new SystemStreamLog()));
+        assertTrue(uploads.isEmpty());
+    }
+
+    private File page(String name, String content) throws Exception {
+        File file = new File(temporaryFolder.newFolder(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * A wagon recording uploads, with the entries of uploaded archives, and commands.
+     */
+    private Wagon newWagon() {
+        return (Wagon) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {CommandExecutor.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "put":
+                            uploads.add((String) args[1]);
+                            readArchive((File) args[0]);
+                            return null;
+                        case "executeCommand":
+                            commands.add((String) args[0]);
+                            return null;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private void readArchive(File archive) throws Exception {
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(archive.toPath()))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                entries.put(entry.getName(), IOUtil.toString(in, "UTF-8"));
+            }
+        }
+    }
+}
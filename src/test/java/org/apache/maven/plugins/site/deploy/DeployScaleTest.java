@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.plugins.site.stubs.ScaleBudget;
+import org.apache.maven.plugins.site.stubs.SiteComponents;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Deploy of the staged site of a large reactor, with many pages and locales.
+ */
+public class DeployScaleTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testDeployFiles() throws Exception {
+        File site = temporaryFolder.newFolder("site");
+        List<Locale> locales = SiteComponents.locales(ScaleBudget.LOCALES);
+        byte[] content = new byte[4096];
+        Arrays.fill(content, (byte) 'x');
+        int units = 0;
+        for (Locale locale : locales) {
+            File localeDirectory = locale.equals(SiteTool.DEFAULT_LOCALE) ? site : new File(site, locale.toString());
+            for (int module = 0; module < ScaleBudget.MODULES; module++) {
+                File moduleDirectory = new File(localeDirectory, "module-" + module);
+                moduleDirectory.mkdirs();
+                for (int page = 0; page < ScaleBudget.PAGES; page++) {
+                    Files.write(new File(moduleDirectory, "page-" + page + ".html").toPath(), content);
+                    units++;
+                }
+            }
+        }
+        int files = units;
+
+        Map<String, File> collected = ScaleBudget.run(
+                "collect files", units, 0.5, 1, () -> AbstractDeployMojo.collectFiles(site, locales, "."));
+        assertEquals(files, collected.size());
+
+        DeployManifest manifest = ScaleBudget.run("checksum files", units, 1, 1, () -> {
+            DeployManifest checksums = new DeployManifest();
+            for (Map.Entry<String, File> entry : collected.entrySet()) {
+                checksums.put(entry.getKey(), DeployManifest.checksum(entry.getValue()));
+            }
+            return checksums;
+        });
+        assertEquals(files, manifest.paths().size());
+
+        File target = temporaryFolder.newFolder("target");
+        assertEquals(files, (int) ScaleBudget.run("copy files", units, 2, 1, () -> copy(site, locales, target)));
+        assertEquals(
+                0, (int) ScaleBudget.run("copy unchanged files", units, 0.5, 1, () -> copy(site, locales, target)));
+        assertEquals(
+                new String(content, StandardCharsets.UTF_8),
+                new String(
+                        Files.readAllBytes(new File(target, "fr/module-1/page-0.html").toPath()),
+                        StandardCharsets.UTF_8));
+    }
+
+    private static int copy(File site, List<Locale> locales, File target) throws Exception {
+        try (LocalCopy localCopy = new LocalCopy(target, 4)) {
+            AbstractDeployMojo.copyFiles(site, locales, ".", localCopy);
+            return localCopy.getCopied();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.deploy;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class LocalCopyTest {
+    private static final int FILES = 20;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testCopyChangedFiles() throws Exception {
+        File site = temporaryFolder.newFolder("site");
+        File staging = temporaryFolder.newFolder("staging");
+
+        for (int i = 0; i < FILES; i++) {
+            File file = new File(site, "dir" + (i % 3) + "/sub" + (i % 2) + "/page" + i + ".html");
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), ("page " + i).getBytes(StandardCharsets.UTF_8));
+        }
+        File excluded = new File(site, "fr/index.html");
+        excluded.getParentFile().mkdirs();
+        Files.write(excluded.toPath(), "index".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(FILES, copy(site, staging, 4));
+        assertEquals("page 7", read(new File(staging, "module/dir1/sub1/page7.html")));
+        assertFalse(new File(staging, "module/fr").exists());
+
+        // nothing changed
+        assertEquals(0, copy(site, staging, 4));
+
+        File changed = new File(site, "dir1/sub1/page7.html");
+        Files.write(changed.toPath(), "page 7 changed".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(changed.toPath(), FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        assertEquals(1, copy(site, staging, 1));
+        assertEquals("page 7 changed", read(new File(staging, "module/dir1/sub1/page7.html")));
+    }
+
+    @Test
+    public void testCopyLinkedDirectories() throws Exception {
+        File site = temporaryFolder.newFolder("site");
+        File staging = temporaryFolder.newFolder("staging");
+        File apidocs = temporaryFolder.newFolder("apidocs");
+
+        for (int i = 0; i < FILES; i++) {
+            File file = new File(apidocs, "package" + (i % 3) + "/Class" + i + ".html");
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), ("class " + i).getBytes(StandardCharsets.UTF_8));
+        }
+        Files.createSymbolicLink(new File(site, "apidocs").toPath(), apidocs.toPath());
+        // a link back to a parent directory is not followed forever
+        Files.createSymbolicLink(new File(apidocs, "package0/site").toPath(), site.toPath());
+
+        assertEquals(FILES, copy(site, staging, 1));
+        assertEquals("class 4", read(new File(staging, "module/apidocs/package1/Class4.html")));
+
+        File threaded = temporaryFolder.newFolder("threaded");
+        assertEquals(FILES, copy(site, threaded, 4));
+        assertEquals("class 4", read(new File(threaded, "module/apidocs/package1/Class4.html")));
+    }
+
+    private static int copy(File site, File staging, int threads) throws Exception {
+        try (LocalCopy localCopy = new LocalCopy(staging, threads)) {
+            localCopy.copy(site, "module/.", Collections.singleton("fr"));
+            localCopy.await();
+            assertEquals(FILES, localCopy.getFiles());
+            return localCopy.getCopied();
+        }
+    }
+
+    private static String read(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
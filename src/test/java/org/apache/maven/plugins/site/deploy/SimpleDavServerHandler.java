@@ -26,6 +26,7 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
@@ -74,7 +75,18 @@ public class SimpleDavServerHandler {
                 if (request.getMethod().equalsIgnoreCase("PUT")) {
                     File targetFile = new File(siteTargetPath, targetPath);
                     targetFile.getParentFile().mkdirs();
-                    Files.copy(request.getInputStream(), targetFile.toPath());
+                    Files.copy(request.getInputStream(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } else if (request.getMethod().equalsIgnoreCase("GET")) {
+                    File targetFile = new File(siteTargetPath, targetPath);
+                    if (!targetFile.isFile()) {
+                        response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                        ((Request) request).setHandled(true);
+                        return;
+                    }
+                    response.setStatus(HttpServletResponse.SC_OK);
+                    Files.copy(targetFile.toPath(), response.getOutputStream());
+                    ((Request) request).setHandled(true);
+                    return;
                 }
 
                 // PrintWriter writer = response.getWriter();
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.descriptor;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugins.site.stubs.SiteComponents;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class SiteModelCacheTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testForeignCacheIgnored() {
+        DefaultRepositorySystemSession repoSession = new DefaultRepositorySystemSession();
+        assertSame(SiteModelCache.of(repoSession), SiteModelCache.of(repoSession));
+
+        // the cache of the same class loaded by another plugin realm
+        repoSession.getData().set(SiteModelCache.class.getName(), new Object());
+        assertNotSame(SiteModelCache.of(repoSession), SiteModelCache.of(repoSession));
+    }
+
+    @Test
+    public void testParentDescriptorInSameRelativeDirectory() throws Exception {
+        MavenProject parent = project("parent", temporaryFolder.newFolder("parent"));
+        MavenProject child = project("child", new File(parent.getBasedir(), "child"));
+        child.setParent(parent);
+        File siteDirectory = new File(child.getBasedir(), "src/doc");
+        File parentDescriptor = new File(parent.getBasedir(), "src/doc/site.xml");
+        Files.createDirectories(siteDirectory.toPath());
+        Files.createDirectories(parentDescriptor.getParentFile().toPath());
+        Files.write(parentDescriptor.toPath(), "<site/>".getBytes("UTF-8"));
+        parentDescriptor.setLastModified(1_000_000L);
+
+        SiteModel siteModel = new SiteModel();
+        siteModel.setName("cached");
+        try (SiteComponents components = new SiteComponents()) {
+            SiteTool siteTool = components.lookup(SiteTool.class);
+            SiteModelCache cache = new SiteModelCache();
+            cache.put(siteTool, child, siteDirectory, SiteTool.DEFAULT_LOCALE, siteModel);
+            SiteModel cached = cache.get(siteTool, child, siteDirectory, SiteTool.DEFAULT_LOCALE);
+            assertEquals("cached", cached.getName());
+            assertNotSame(siteModel, cached);
+
+            parentDescriptor.setLastModified(2_000_000L);
+            assertNull(cache.get(siteTool, child, siteDirectory, SiteTool.DEFAULT_LOCALE));
+        }
+    }
+
+    private static MavenProject project(String artifactId, File basedir) {
+        Model model = new Model();
+        model.setGroupId("org.example");
+        model.setArtifactId(artifactId);
+        model.setVersion("1.0");
+        MavenProject project = new MavenProject(model);
+        project.setFile(new File(basedir, "pom.xml"));
+        return project;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.descriptor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.site.inheritance.SiteModelInheritanceAssembler;
+import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.site.stubs.ScaleBudget;
+import org.apache.maven.plugins.site.stubs.SiteComponents;
+import org.apache.maven.plugins.site.stubs.SyntheticReactor;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Computation of the site models of a large reactor with deep parent chains, as every site goal does first.
+ */
+public class SiteModelScaleTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testPrepareSiteModels() throws Exception {
+        SyntheticReactor reactor = SyntheticReactor.generate(
+                temporaryFolder.newFolder("reactor"),
+                ScaleBudget.MODULES,
+                ScaleBudget.DEPTH,
+                1,
+                SiteComponents.locales(ScaleBudget.LOCALES));
+        int units = reactor.getProjects().size() * reactor.getLocales().size();
+
+        try (SiteComponents components = new SiteComponents()) {
+            ReactorSiteDescriptorMojo mojo = new ReactorSiteDescriptorMojo(
+                    components.lookup(SiteModelInheritanceAssembler.class),
+                    components.lookup(SiteTool.class),
+                    reactor.getProjects());
+
+            List<SiteModel> siteModels =
+                    ScaleBudget.run("prepare site models", units, 15, 16, () -> mojo.prepare(reactor));
+            assertEquals(units, siteModels.size());
+            // the module at the end of the longest parent chain inherits from the top project
+            SiteModel deepest =
+                    siteModels.get(ScaleBudget.DEPTH * reactor.getLocales().size());
+            assertEquals(SyntheticReactor.BANNER, deepest.getBannerLeft().getName());
+
+            // the same build running another site goal
+            ScaleBudget.run("prepare cached site models", units, 2, 16, () -> mojo.prepare(reactor));
+        }
+    }
+
+    /**
+     * Prepares the site model of every project of a reactor, sharing the same repository session.
+     */
+    private static class ReactorSiteDescriptorMojo extends AbstractSiteDescriptorMojo {
+        ReactorSiteDescriptorMojo(
+                SiteModelInheritanceAssembler assembler, SiteTool siteTool, List<MavenProject> reactorProjects) {
+            super(assembler);
+            this.siteTool = siteTool;
+            this.reactorProjects = reactorProjects;
+            this.repoSession = new DefaultRepositorySystemSession();
+            this.remoteProjectRepositories = Collections.emptyList();
+        }
+
+        List<SiteModel> prepare(SyntheticReactor reactor) throws MojoExecutionException {
+            List<SiteModel> siteModels = new ArrayList<>();
+            for (MavenProject reactorProject : reactorProjects) {
+                project = reactorProject;
+                siteDirectory = reactor.getSite(reactorProject).getSiteDirectory();
+                for (Locale locale : reactor.getLocales()) {
+                    siteModels.add(prepareSiteModel(locale));
+                }
+            }
+            return siteModels;
+        }
+
+        @Override
+        public void execute() {}
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.doxia.Doxia;
+import org.apache.maven.doxia.parser.ParseException;
+import org.apache.maven.doxia.parser.Parser;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.impl.SinkWrapperFactory;
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.siterenderer.DocumentContent;
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
+import org.apache.maven.doxia.siterenderer.RendererException;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ConcurrentSiteRendererTest {
+    private static final int DOCUMENTS = 50;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File siteDirectory;
+
+    private File outputDirectory;
+
+    private SiteRenderingContext context;
+
+    @Before
+    public void setUp() throws IOException {
+        siteDirectory = temporaryFolder.newFolder("site");
+        outputDirectory = temporaryFolder.newFolder("output");
+        context = new SiteRenderingContext();
+        context.setSiteModel(new SiteModel());
+        context.setInputEncoding("UTF-8");
+        context.setOutputEncoding("UTF-8");
+    }
+
+    @Test
+    public void testRenderDoxiaDocuments() throws Exception {
+        List<DocumentRenderer> documents = createDocuments();
+
+        new ConcurrentSiteRenderer(new StubSiteRenderer(null), new StubDoxia(), 4)
+                .renderDoxiaDocuments(documents, context, outputDirectory);
+
+        for (int i = 0; i < DOCUMENTS; i++) {
+            File output = new File(outputDirectory, "doc" + i + ".html");
+            String content = new String(Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8);
+            assertEquals("<merged>content " + i + "</merged>", content);
+        }
+    }
+
+    @Test
+    public void testFirstFailureInDocumentOrder() throws Exception {
+        List<DocumentRenderer> documents = createDocuments();
+
+        try {
+            new ConcurrentSiteRenderer(new StubSiteRenderer("content 1"), new StubDoxia(), 4)
+                    .renderDoxiaDocuments(documents, context, outputDirectory);
+            fail("RendererException expected");
+        } catch (RendererException e) {
+            assertEquals("Failed to merge content 1", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testTimings() throws Exception {
+        Timings timings = new Timings(outputDirectory);
+
+        new ConcurrentSiteRenderer(new StubSiteRenderer(null), new StubDoxia(), 4)
+                .setTimings(timings)
+                .renderDoxiaDocuments(createDocuments(), context, outputDirectory);
+
+        Map<String, Integer> phases = new TreeMap<>();
+        for (Timings.Entry entry : timings.getEntries()) {
+            phases.merge(entry.getPhase() + ' ' + entry.getName(), 1, Integer::sum);
+        }
+        assertEquals(2 * DOCUMENTS, phases.size());
+        assertEquals(Integer.valueOf(1), phases.get("parse doc0.html"));
+        assertEquals(Integer.valueOf(1), phases.get("merge doc0.html"));
+    }
+
+    private List<DocumentRenderer> createDocuments() throws IOException {
+        List<DocumentRenderer> documents = new ArrayList<>();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            File source = new File(siteDirectory, "doc" + i + ".txt");
+            Files.write(source.toPath(), ("content " + i).getBytes(StandardCharsets.UTF_8));
+            documents.add(new DoxiaDocumentRenderer(
+                    new DocumentRenderingContext(siteDirectory, "", "doc" + i + ".txt", "stub", "txt", true)));
+        }
+        return documents;
+    }
+
+    /**
+     * Writes the body of the parsed document, failing for documents with a body containing the given text.
+     */
+    private static class StubSiteRenderer implements SiteRenderer {
+        private final String failure;
+
+        StubSiteRenderer(String failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public void mergeDocumentIntoSite(Writer writer, DocumentContent content, SiteRenderingContext context)
+                throws IOException, RendererException {
+            if (failure != null && content.getBody().contains(failure)) {
+                throw new RendererException("Failed to merge " + failure);
+            }
+            writer.write("<merged>" + content.getBody().trim() + "</merged>");
+        }
+
+        @Override
+        public void render(Collection<DocumentRenderer> documents, SiteRenderingContext context, File outputDirectory) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SiteRenderingContext createContextForSkin(
+                Artifact skin, Map<String, ?> attributes, SiteModel siteModel, String defaultTitle, Locale locale) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void copyResources(SiteRenderingContext context, File outputDirectory) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, DocumentRenderer> locateDocumentFiles(SiteRenderingContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void renderDocument(Writer writer, DocumentRenderingContext docContext, SiteRenderingContext context) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Emits the whole source as a single text event.
+     */
+    private static class StubDoxia implements Doxia {
+        private final Parser parser = new StubParser();
+
+        @Override
+        public void parse(Reader source, String parserId, Sink sink) throws ParseException {
+            parse(source, parserId, sink, null);
+        }
+
+        @Override
+        public void parse(Reader source, String parserId, Sink sink, String reference) throws ParseException {
+            parser.parse(source, sink, reference);
+        }
+
+        @Override
+        public Parser getParser(String parserId) {
+            return parser;
+        }
+    }
+
+    private static class StubParser implements Parser {
+        @Override
+        public void parse(Reader source, Sink sink) {
+            parse(source, sink, null);
+        }
+
+        @Override
+        public void parse(Reader source, Sink sink, String reference) {
+            try {
+                StringBuilder text = new StringBuilder();
+                char[] buffer = new char[1024];
+                for (int read = source.read(buffer); read >= 0; read = source.read(buffer)) {
+                    text.append(buffer, 0, read);
+                }
+                sink.body();
+                sink.text(text.toString());
+                sink.body_();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int getType() {
+            return TXT_TYPE;
+        }
+
+        @Override
+        public void setEmitComments(boolean emitComments) {}
+
+        @Override
+        public boolean isEmitComments() {
+            return false;
+        }
+
+        @Override
+        public void addSinkWrapperFactory(SinkWrapperFactory factory) {}
+
+        @Override
+        public void setEmitAnchorsForIndexableEntries(boolean emitAnchors) {}
+
+        @Override
+        public boolean isEmitAnchorsForIndexableEntries() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.apache.maven.doxia.parser.module.ParserModuleManager;
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.DoxiaDocumentRenderer;
+import org.apache.maven.doxia.siterenderer.RendererException;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext.SiteDirectory;
+import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.plugin.testing.SilentLog;
+import org.apache.maven.plugins.site.stubs.SiteComponents;
+import org.apache.maven.plugins.site.stubs.SyntheticSite;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DocumentIndexTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private SiteComponents components;
+
+    private SiteRenderingContext context;
+
+    private File siteDirectory;
+
+    @Before
+    public void setUp() throws Exception {
+        components = new SiteComponents();
+        siteDirectory = temporaryFolder.newFolder("site");
+        SyntheticSite site = SyntheticSite.generate(siteDirectory, 12, 5, 1);
+        context = components.createContext(site, SiteTool.DEFAULT_LOCALE);
+
+        write(siteDirectory, "markdown/velocity.md.vm");
+        write(siteDirectory, "markdown/sub/nested.md");
+        write(siteDirectory, "markdown/drafts/draft.md");
+        write(siteDirectory, "markdown/notes.txt");
+        write(siteDirectory, "apt/UPPER.APT");
+        File generatedSiteDirectory = temporaryFolder.newFolder("generated-site");
+        write(generatedSiteDirectory, "xdoc/generated.xml");
+        context.addSiteDirectory(new SiteDirectory(generatedSiteDirectory, false));
+        context.setModuleExcludes(Collections.singletonMap("markdown", "drafts/"));
+    }
+
+    @After
+    public void tearDown() {
+        components.close();
+    }
+
+    @Test
+    public void testSameDocumentsAsSiteRenderer() throws Exception {
+        SiteRenderer siteRenderer = components.getSiteRenderer();
+        Map<String, DocumentRenderer> expected = siteRenderer.locateDocumentFiles(context);
+        assertEquals(16, expected.size());
+
+        // looked up one by one
+        DocumentIndex index = createIndex();
+        for (Map.Entry<String, DocumentRenderer> entry : expected.entrySet()) {
+            assertTrue(entry.getKey(), index.containsKey(entry.getKey()));
+            assertSameContext(entry.getValue(), index.get(entry.getKey()));
+        }
+
+        // scanned
+        index = createIndex().scan();
+        assertEquals(expected.keySet(), new HashSet<>(index.keySet()));
+        for (Map.Entry<String, DocumentRenderer> entry : index.entrySet()) {
+            assertSameContext(expected.get(entry.getKey()), entry.getValue());
+        }
+    }
+
+    @Test
+    public void testRenderersCreatedOnAccess() throws Exception {
+        DocumentIndex index = createIndex();
+        DocumentRenderer renderer = index.get("page-0.html");
+        assertSame(renderer, index.get("page-0.html"));
+
+        assertNull(index.get("missing.html"));
+        assertNull(index.get("../site/markdown/page-0.html"));
+        assertNull(index.get("drafts/draft.html"));
+        assertFalse(index.containsKey("notes.txt"));
+
+        DocumentRenderer report =
+                new DoxiaDocumentRenderer(new DocumentRenderingContext(siteDirectory, "report", null));
+        index.put("report.html", report);
+        assertSame(report, index.get("report.html"));
+        assertTrue(index.keySet().contains("report.html"));
+        assertEquals(17, index.size());
+        assertSame(renderer, index.get("page-0.html"));
+    }
+
+    @Test
+    public void testClash() throws Exception {
+        write(siteDirectory, "markdown/same.md");
+        write(siteDirectory, "apt/same.apt");
+
+        try {
+            createIndex().scan();
+            fail("Clash not detected");
+        } catch (RendererException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("clashes with existing"));
+        }
+
+        DocumentIndex index = createIndex();
+        assertTrue(index.containsKey("page-0.html"));
+        try {
+            index.get("same.html");
+            fail("Clash not detected");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof RendererException);
+        }
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        DocumentIndex index = createIndex();
+        DocumentRenderer report =
+                new DoxiaDocumentRenderer(new DocumentRenderingContext(siteDirectory, "report", null));
+        index.put("report.html", report);
+        assertTrue(index.containsKey("sub/nested.html"));
+        assertFalse(index.containsKey("sub/added.html"));
+        assertFalse(index.containsKey("other/added.html"));
+
+        write(siteDirectory, "markdown/sub/added.md");
+        write(siteDirectory, "markdown/other/added.md");
+        File nested = new File(siteDirectory, "markdown/sub/nested.md");
+        assertTrue(nested.delete());
+
+        // only the listings of the changed directories are read again
+        DocumentIndex refreshed = index.refresh(Collections.singleton(nested.getAbsoluteFile()));
+        assertFalse(refreshed.containsKey("sub/nested.html"));
+        assertTrue(refreshed.containsKey("sub/added.html"));
+        assertFalse(refreshed.containsKey("other/added.html"));
+
+        refreshed =
+                refreshed.refresh(Collections.singleton(new File(siteDirectory, "markdown/other").getAbsoluteFile()));
+        assertTrue(refreshed.containsKey("other/added.html"));
+        assertTrue(refreshed.containsKey("page-0.html"));
+        assertSame(report, refreshed.get("report.html"));
+
+        // the previous index is unchanged
+        assertTrue(index.containsKey("sub/nested.html"));
+        assertFalse(index.containsKey("sub/added.html"));
+    }
+
+    private DocumentIndex createIndex() throws Exception {
+        ParserModuleManager parserModuleManager = components.lookup(ParserModuleManager.class);
+        return new DocumentIndex(parserModuleManager.getParserModules(), context, new SilentLog());
+    }
+
+    private static void assertSameContext(DocumentRenderer expected, DocumentRenderer actual) {
+        DocumentRenderingContext expectedContext = expected.getRenderingContext();
+        DocumentRenderingContext actualContext = actual.getRenderingContext();
+        assertEquals(expectedContext.getBasedir(), actualContext.getBasedir());
+        assertEquals(expectedContext.getBasedirRelativePath(), actualContext.getBasedirRelativePath());
+        assertEquals(expectedContext.getInputPath(), actualContext.getInputPath());
+        assertEquals(expectedContext.getOutputPath(), actualContext.getOutputPath());
+        assertEquals(expectedContext.getParserId(), actualContext.getParserId());
+        assertEquals(expectedContext.getExtension(), actualContext.getExtension());
+        assertEquals(expectedContext.isEditable(), actualContext.isEditable());
+        assertEquals(expectedContext.getRelativePath(), actualContext.getRelativePath());
+        assertEquals(expectedContext.getAttribute("velocity"), actualContext.getAttribute("velocity"));
+    }
+
+    private static void write(File directory, String path) throws IOException {
+        File file = new File(directory, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), "content".getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Locale;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RenderManifestTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testDeletedSourcesDropped() throws Exception {
+        File file = new File(temporaryFolder.getRoot(), "target/site-render-manifest.properties");
+        RenderManifest manifest = RenderManifest.load(file);
+        manifest.put("index.html", "1");
+        manifest.put("deleted.html", "2");
+        manifest.store();
+
+        manifest = RenderManifest.load(file);
+        assertTrue(manifest.isUnchanged("index.html", "1"));
+        manifest.store();
+
+        manifest = RenderManifest.load(file);
+        assertTrue(manifest.isUnchanged("index.html", "1"));
+        assertFalse(manifest.isUnchanged("deleted.html", "2"));
+    }
+
+    @Test
+    public void testContextHash() throws Exception {
+        File skinFile = temporaryFolder.newFile("skin.jar");
+        Files.write(skinFile.toPath(), "skin".getBytes(StandardCharsets.UTF_8));
+        Artifact skin =
+                new DefaultArtifact("org.example", "skin", "1.0", null, "jar", null, new DefaultArtifactHandler());
+        skin.setFile(skinFile);
+
+        SiteRenderingContext context = new SiteRenderingContext();
+        context.setLocale(Locale.ENGLISH);
+        context.setSiteModel(new SiteModel());
+        context.setSkin(skin);
+        context.setTemplateProperties(Collections.singletonMap("key", "value"));
+        String hash = RenderManifest.hash(context, "plugin:1.0");
+        assertEquals(hash, RenderManifest.hash(context, "plugin:1.0"));
+
+        assertNotEquals(hash, RenderManifest.hash(context, "plugin:1.1"));
+
+        SiteModel siteModel = new SiteModel();
+        siteModel.setName("Changed");
+        context.setSiteModel(siteModel);
+        assertNotEquals(hash, RenderManifest.hash(context, "plugin:1.0"));
+        context.setSiteModel(new SiteModel());
+
+        context.setTemplateProperties(Collections.singletonMap("key", "changed"));
+        assertNotEquals(hash, RenderManifest.hash(context, "plugin:1.0"));
+        context.setTemplateProperties(Collections.singletonMap("key", "value"));
+        assertEquals(hash, RenderManifest.hash(context, "plugin:1.0"));
+
+        // a SNAPSHOT skin rebuilt with the same id
+        Files.write(skinFile.toPath(), "rebuilt skin".getBytes(StandardCharsets.UTF_8));
+        assertNotEquals(hash, RenderManifest.hash(context, "plugin:1.0"));
+    }
+
+    @Test
+    public void testDocumentHash() throws Exception {
+        File basedir = temporaryFolder.newFolder("markdown");
+        File source = new File(basedir, "index.md");
+        Files.write(source.toPath(), "# Index".getBytes(StandardCharsets.UTF_8));
+        DocumentRenderingContext docRenderingContext =
+                new DocumentRenderingContext(basedir, "src/site/markdown", "index.md", "markdown", "md", true);
+
+        String hash = RenderManifest.hash(docRenderingContext, "context");
+        assertEquals(hash, RenderManifest.hash(docRenderingContext, "context"));
+        assertNotEquals(hash, RenderManifest.hash(docRenderingContext, "other context"));
+
+        Files.write(source.toPath(), "# Changed".getBytes(StandardCharsets.UTF_8));
+        assertNotEquals(hash, RenderManifest.hash(docRenderingContext, "context"));
+    }
+}
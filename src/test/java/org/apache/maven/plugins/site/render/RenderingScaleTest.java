@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.maven.doxia.parser.module.ParserModule;
+import org.apache.maven.doxia.parser.module.ParserModuleManager;
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext.SiteDirectory;
+import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.plugin.testing.SilentLog;
+import org.apache.maven.plugins.site.stubs.ScaleBudget;
+import org.apache.maven.plugins.site.stubs.SiteComponents;
+import org.apache.maven.plugins.site.stubs.SyntheticReactor;
+import org.apache.maven.plugins.site.stubs.SyntheticSite;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.reporting.MavenReport;
+import org.apache.maven.reporting.exec.MavenReportExecution;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Location and rendering of the documents of a large reactor, with many pages, locales and reports.
+ */
+public class RenderingScaleTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testLocateDocuments() throws Exception {
+        SyntheticReactor reactor = SyntheticReactor.generate(
+                temporaryFolder.newFolder("reactor"),
+                ScaleBudget.MODULES,
+                ScaleBudget.DEPTH,
+                ScaleBudget.PAGES,
+                SiteComponents.locales(ScaleBudget.LOCALES));
+        int units = reactor.getProjects().size() * reactor.getLocales().size() * ScaleBudget.PAGES;
+
+        try (SiteComponents components = new SiteComponents()) {
+            SiteRenderer siteRenderer = components.getSiteRenderer();
+            List<Map<String, DocumentRenderer>> documents = ScaleBudget.run("locate documents", units, 1, 4, () -> {
+                List<Map<String, DocumentRenderer>> located = new ArrayList<>();
+                for (MavenProject project : reactor.getProjects()) {
+                    SyntheticSite site = reactor.getSite(project);
+                    for (Locale locale : reactor.getLocales()) {
+                        SiteRenderingContext context = new SiteRenderingContext();
+                        context.setRootDirectory(project.getBasedir());
+                        context.addSiteDirectory(new SiteDirectory(site.getSiteDirectory(locale), true));
+                        context.addSiteLocales(reactor.getLocales());
+                        located.add(siteRenderer.locateDocumentFiles(context));
+                    }
+                }
+                return located;
+            });
+
+            int located = 0;
+            for (Map<String, DocumentRenderer> moduleDocuments : documents) {
+                located += moduleDocuments.size();
+            }
+            assertEquals(units, located);
+        }
+    }
+
+    @Test
+    public void testIndexDocuments() throws Exception {
+        SyntheticReactor reactor = SyntheticReactor.generate(
+                temporaryFolder.newFolder("reactor"),
+                ScaleBudget.MODULES,
+                ScaleBudget.DEPTH,
+                ScaleBudget.PAGES,
+                SiteComponents.locales(ScaleBudget.LOCALES));
+        int units = reactor.getProjects().size() * reactor.getLocales().size() * ScaleBudget.PAGES;
+
+        try (SiteComponents components = new SiteComponents()) {
+            Collection<ParserModule> parserModules =
+                    components.lookup(ParserModuleManager.class).getParserModules();
+            // as site:run, which only looks up the requested page
+            List<DocumentRenderer> documents = ScaleBudget.run("index documents", units, 0.25, 1, () -> {
+                List<DocumentRenderer> indexed = new ArrayList<>();
+                for (MavenProject project : reactor.getProjects()) {
+                    SyntheticSite site = reactor.getSite(project);
+                    for (Locale locale : reactor.getLocales()) {
+                        SiteRenderingContext context = new SiteRenderingContext();
+                        context.setRootDirectory(project.getBasedir());
+                        context.addSiteDirectory(new SiteDirectory(site.getSiteDirectory(locale), true));
+                        context.addSiteLocales(reactor.getLocales());
+                        indexed.add(new DocumentIndex(parserModules, context, new SilentLog()).get("page-0.html"));
+                    }
+                }
+                return indexed;
+            });
+
+            assertEquals(reactor.getProjects().size() * reactor.getLocales().size(), documents.size());
+            assertTrue(documents.stream().allMatch(document -> document != null));
+        }
+    }
+
+    @Test
+    public void testRenderDocuments() throws Exception {
+        SyntheticReactor reactor = SyntheticReactor.generate(
+                temporaryFolder.newFolder("reactor"), ScaleBudget.MODULES, ScaleBudget.DEPTH, ScaleBudget.PAGES);
+        File outputDirectory = temporaryFolder.newFolder("output");
+        List<MavenReport> reports = SyntheticReactor.createReports(ScaleBudget.REPORTS);
+        // the main page and the sub-pages of every report
+        int units = reactor.getProjects().size() * ScaleBudget.PAGES + reports.size() * 3;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        try (SiteComponents components = new SiteComponents()) {
+            SiteRenderer siteRenderer = components.getSiteRenderer();
+            List<SiteRenderingContext> contexts = new ArrayList<>();
+            for (MavenProject project : reactor.getProjects()) {
+                SyntheticSite site = reactor.getSite(project);
+                SiteRenderingContext context = components.createContext(
+                        project, site.createSiteModel(), project.getBasedir(), SiteTool.DEFAULT_LOCALE);
+                context.addSiteDirectory(new SiteDirectory(site.getSiteDirectory(), true));
+                contexts.add(context);
+            }
+
+            ScaleBudget.run("render documents", units, 60, 16, () -> {
+                for (int i = 0; i < contexts.size(); i++) {
+                    SiteRenderingContext context = contexts.get(i);
+                    new ConcurrentSiteRenderer(siteRenderer, components.getDoxia(), threads)
+                            .renderDoxiaDocuments(
+                                    siteRenderer.locateDocumentFiles(context).values(),
+                                    context,
+                                    new File(outputDirectory, "module-" + i));
+                }
+
+                File reportsDirectory = new File(outputDirectory, "module-0");
+                List<ReportDocumentRenderer> reportRenderers = new ArrayList<>();
+                for (MavenReport report : reports) {
+                    report.setReportOutputDirectory(reportsDirectory);
+                    reportRenderers.add(new ReportDocumentRenderer(
+                            new MavenReportExecution(report),
+                            new DocumentRenderingContext(reportsDirectory, report.getOutputName(), "scale"),
+                            new SilentLog()));
+                }
+                new ConcurrentSiteRenderer(siteRenderer, components.getDoxia(), threads)
+                        .renderReports(reportRenderers, contexts.get(0), reportsDirectory, new SilentLog());
+                return null;
+            });
+
+            File lastModule = new File(outputDirectory, "module-" + (contexts.size() - 1));
+            assertTrue(new File(lastModule, "page-" + (ScaleBudget.PAGES - 1) + ".html").isFile());
+            assertTrue(new File(outputDirectory, "module-0/report-0-page-1.html").isFile());
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkFactory;
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.siterenderer.DocumentContent;
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.DocumentRenderingContext;
+import org.apache.maven.doxia.siterenderer.RendererException;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.plugin.Mojo;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.testing.SilentLog;
+import org.apache.maven.plugins.site.stubs.StubMultiPageReport;
+import org.apache.maven.reporting.MavenReportException;
+import org.apache.maven.reporting.exec.MavenReportExecution;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReportDocumentRendererTest {
+    private static final int SUB_PAGES = 5;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File outputDirectory;
+
+    private SiteRenderingContext context;
+
+    @Before
+    public void setUp() throws IOException {
+        outputDirectory = temporaryFolder.newFolder("output");
+        context = new SiteRenderingContext();
+        context.setSiteModel(new SiteModel());
+        context.setOutputEncoding("UTF-8");
+        context.setLocale(Locale.ENGLISH);
+    }
+
+    @Test
+    public void testSubPagesWrittenWhenClosed() throws Exception {
+        StreamedReport report = new StreamedReport(true);
+        StringWriter writer = new StringWriter();
+
+        render(report, writer, new StubSiteRenderer(null));
+
+        // every sub-page was written before the next one was generated
+        assertEquals(SUB_PAGES - 1, report.written.size());
+        for (boolean written : report.written) {
+            assertTrue(written);
+        }
+        assertEquals("<merged>report</merged>", writer.toString());
+        assertEquals(
+                "<merged>Sub-page " + (SUB_PAGES - 1) + "</merged>", read("report-page-" + (SUB_PAGES - 1) + ".html"));
+    }
+
+    @Test
+    public void testSubPagesNotClosed() throws Exception {
+        render(new StreamedReport(false), new StringWriter(), new StubSiteRenderer(null));
+
+        for (int i = 0; i < SUB_PAGES; i++) {
+            assertEquals("<merged>Sub-page " + i + "</merged>", read("report-page-" + i + ".html"));
+        }
+    }
+
+    @Test
+    public void testSubPageFailure() throws Exception {
+        try {
+            render(new StreamedReport(true), new StringWriter(), new StubSiteRenderer("Sub-page 1"));
+            fail("RendererException expected");
+        } catch (RendererException e) {
+            assertEquals("Failed to merge Sub-page 1", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testReportLogBuffered() throws Exception {
+        RecordingLog siteLog = new RecordingLog();
+        RecordingLog reportLog = new RecordingLog();
+        LoggingReport report = new LoggingReport();
+        report.setLog(reportLog);
+        BufferedLog log = new BufferedLog(siteLog);
+
+        render(report, new StringWriter(), new StubSiteRenderer(null), log);
+
+        assertSame(reportLog, report.getLog());
+        assertTrue(siteLog.messages.isEmpty());
+        assertTrue(reportLog.messages.isEmpty());
+
+        log.flush();
+        assertEquals(1, siteLog.messages.size());
+        assertTrue(siteLog.messages.get(0), siteLog.messages.get(0).startsWith("Generating "));
+        assertEquals(Collections.singletonList("generated"), reportLog.messages);
+    }
+
+    private void render(StubMultiPageReport report, Writer writer, SiteRenderer siteRenderer) throws Exception {
+        render(report, writer, siteRenderer, new SilentLog());
+    }
+
+    private void render(StubMultiPageReport report, Writer writer, SiteRenderer siteRenderer, Log log)
+            throws Exception {
+        report.setReportOutputDirectory(outputDirectory);
+        new ReportDocumentRenderer(
+                        new MavenReportExecution(report),
+                        new DocumentRenderingContext(outputDirectory, "report", "test"),
+                        log)
+                .renderDocument(writer, siteRenderer, context);
+    }
+
+    private String read(String outputName) throws IOException {
+        return new String(Files.readAllBytes(new File(outputDirectory, outputName).toPath()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Records, when creating each sub-page, whether the previous one was already written.
+     */
+    private class StreamedReport extends StubMultiPageReport {
+        private final boolean closeSubSinks;
+
+        private final List<Boolean> written = new ArrayList<>();
+
+        StreamedReport(boolean closeSubSinks) {
+            super("report", SUB_PAGES, SUB_PAGES);
+            this.closeSubSinks = closeSubSinks;
+        }
+
+        @Override
+        protected void close(Sink subSink, int subPage) {
+            if (subPage > 0) {
+                written.add(new File(outputDirectory, "report-page-" + (subPage - 1) + ".html").isFile());
+            }
+            if (closeSubSinks) {
+                super.close(subSink, subPage);
+            }
+        }
+    }
+
+    /**
+     * Report logging through its mojo log.
+     */
+    private static class LoggingReport extends StubMultiPageReport implements Mojo {
+        private Log log;
+
+        LoggingReport() {
+            super("report", 0, 1);
+        }
+
+        @Override
+        public void generate(Sink sink, SinkFactory sinkFactory, Locale locale) throws MavenReportException {
+            log.info("generated");
+            super.generate(sink, sinkFactory, locale);
+        }
+
+        @Override
+        public void execute() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setLog(Log log) {
+            this.log = log;
+        }
+
+        @Override
+        public Log getLog() {
+            return log;
+        }
+    }
+
+    private static class RecordingLog extends SilentLog {
+        private final List<String> messages = new ArrayList<>();
+
+        @Override
+        public void info(CharSequence content) {
+            messages.add(content.toString());
+        }
+
+        @Override
+        public void info(CharSequence content, Throwable error) {
+            messages.add(content.toString());
+        }
+    }
+
+    /**
+     * Writes the title of the document, failing for documents with a title containing the given text.
+     */
+    private static class StubSiteRenderer implements SiteRenderer {
+        private final String failure;
+
+        StubSiteRenderer(String failure) {
+            this.failure = failure;
+        }
+
+        @Override
+        public void mergeDocumentIntoSite(Writer writer, DocumentContent content, SiteRenderingContext context)
+                throws IOException, RendererException {
+            if (failure != null && content.getTitle().contains(failure)) {
+                throw new RendererException("Failed to merge " + failure);
+            }
+            writer.write("<merged>" + content.getTitle() + "</merged>");
+        }
+
+        @Override
+        public void render(Collection<DocumentRenderer> documents, SiteRenderingContext context, File outputDirectory) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SiteRenderingContext createContextForSkin(
+                Artifact skin, Map<String, ?> attributes, SiteModel siteModel, String defaultTitle, Locale locale) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void copyResources(SiteRenderingContext context, File outputDirectory) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, DocumentRenderer> locateDocumentFiles(SiteRenderingContext context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void renderDocument(Writer writer, DocumentRenderingContext docContext, SiteRenderingContext context) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
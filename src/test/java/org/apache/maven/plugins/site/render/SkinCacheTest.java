@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.junit.Test;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class SkinCacheTest {
+    @Test
+    public void testSharedBySession() {
+        DefaultRepositorySystemSession repoSession = new DefaultRepositorySystemSession();
+        assertSame(SkinCache.of(repoSession), SkinCache.of(repoSession));
+    }
+
+    @Test
+    public void testForeignCacheIgnored() {
+        DefaultRepositorySystemSession repoSession = new DefaultRepositorySystemSession();
+        // the cache of the same class loaded by another plugin realm
+        Object foreign = new Object();
+        repoSession.getData().set(SkinCache.class.getName(), foreign);
+
+        SkinCache cache = SkinCache.of(repoSession);
+        assertNotSame(cache, SkinCache.of(repoSession));
+        assertSame(foreign, repoSession.getData().get(SkinCache.class.getName()));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.render;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.maven.doxia.tools.SiteTool;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimingsTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testWrite() throws Exception {
+        Timings timings = new Timings(temporaryFolder.getRoot());
+        try (Timings.Timer timer = timings.start("site-model", Timings.name(SiteTool.DEFAULT_LOCALE))) {
+            Thread.sleep(2);
+        }
+        try (Timings.Timer timer = timings.start("report", "fr/\"quoted\".html")) {
+            // nothing
+        }
+
+        List<Timings.Entry> entries = timings.getEntries();
+        assertEquals(2, entries.size());
+        assertEquals("site-model", entries.get(0).getPhase());
+        assertEquals("default", entries.get(0).getName());
+        assertTrue(entries.get(0).getWallNanos() >= 2_000_000);
+        assertEquals("fr", Timings.name(Locale.FRENCH));
+
+        File file = new File(temporaryFolder.getRoot(), "target/site-timings.json");
+        timings.write(file, "org.example:test:jar:1.0");
+        String json = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+        assertTrue(json, json.startsWith("{\n  \"project\": \"org.example:test:jar:1.0\",\n  \"wallMillis\": "));
+        assertTrue(json, json.contains("{\"phase\": \"site-model\", \"name\": \"default\", \"thread\": "));
+        assertTrue(json, json.contains("\"name\": \"fr/\\\"quoted\\\".html\""));
+    }
+
+    @Test
+    public void testDisabled() {
+        try (Timings.Timer timer = Timings.DISABLED.start("site-model", "default")) {
+            // nothing
+        }
+        assertFalse(Timings.DISABLED.isEnabled());
+        assertTrue(Timings.DISABLED.getEntries().isEmpty());
+    }
+}
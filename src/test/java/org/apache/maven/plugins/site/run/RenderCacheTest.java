@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.run;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.codehaus.plexus.util.IOUtil;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RenderCacheTest {
+    @Test
+    public void testInvalidate() throws Exception {
+        RenderCache cache = new RenderCache();
+        RenderCache.Page page = RenderCache.Page.ofText("<html/>", "UTF-8", 0);
+
+        cache.put("", "index.html", page, cache.getGeneration());
+        assertSame(page, cache.get("", "index.html"));
+        assertNull(cache.get("fr", "index.html"));
+
+        assertEquals(1, cache.invalidate());
+        assertNull(cache.get("", "index.html"));
+    }
+
+    @Test
+    public void testIgnorePageRenderedBeforeInvalidation() throws Exception {
+        RenderCache cache = new RenderCache();
+        long generation = cache.getGeneration();
+
+        cache.invalidate();
+        cache.put("", "index.html", RenderCache.Page.ofText("<html/>", "UTF-8", 0), generation);
+        assertNull(cache.get("", "index.html"));
+    }
+
+    @Test
+    public void testPageValidators() throws Exception {
+        RenderCache.Page page = RenderCache.Page.ofText("<html/>", "UTF-8", 1_700_000_000_123L);
+        String etag = page.getETag();
+
+        assertEquals(etag, RenderCache.Page.ofText("<html/>", "UTF-8", 0).getETag());
+        assertNotEquals(
+                etag, RenderCache.Page.ofText("<html></html>", "UTF-8", 0).getETag());
+        assertEquals(1_700_000_000_000L, page.getLastModified());
+
+        assertTrue(page.isNotModified(etag, -1));
+        assertTrue(page.isNotModified("\"other\", W/" + etag, -1));
+        assertTrue(page.isNotModified("*", -1));
+        assertFalse(page.isNotModified("\"other\"", -1));
+        // If-Modified-Since is ignored with If-None-Match
+        assertFalse(page.isNotModified("\"other\"", 1_700_000_000_000L));
+
+        assertTrue(page.isNotModified(null, 1_700_000_000_000L));
+        assertFalse(page.isNotModified(null, 1_699_999_999_000L));
+        assertFalse(page.isNotModified(null, -1));
+
+        // a 304 response carries the ETag the client has, else the one of the content that would be sent
+        String gzipETag = etag.substring(0, etag.length() - 1) + "-gzip\"";
+        assertEquals(gzipETag, page.getNotModifiedETag("\"other\", " + gzipETag, false));
+        assertEquals(etag, page.getNotModifiedETag(etag, true));
+        assertEquals(gzipETag, page.getNotModifiedETag("*", true));
+        assertEquals(etag, page.getNotModifiedETag(null, false));
+    }
+
+    @Test
+    public void testPageGzipped() throws Exception {
+        String text = "<html><body>caf\u00e9</body></html>";
+        RenderCache.Page page = RenderCache.Page.ofText(text, "UTF-8", 0);
+
+        byte[] gzipped = page.gzipped();
+        assertSame(gzipped, page.gzipped());
+        try (Reader reader =
+                new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(gzipped)), StandardCharsets.UTF_8)) {
+            assertEquals(text, IOUtil.toString(reader));
+        }
+    }
+}
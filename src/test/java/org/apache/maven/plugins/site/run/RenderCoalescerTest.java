@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.run;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.doxia.siterenderer.RendererException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RenderCoalescerTest {
+    private final RenderCoalescer coalescer = new RenderCoalescer();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Test
+    public void testConcurrentRequestsShareRendering() throws Exception {
+        RenderCache.Page page = RenderCache.Page.ofText("<html/>", "UTF-8", 0);
+        AtomicInteger renderings = new AtomicInteger();
+
+        FutureTask<RenderCache.Page> first = start(() -> coalescer.render("", "index.html", () -> {
+            renderings.incrementAndGet();
+            awaitRelease();
+            return page;
+        }));
+        FutureTask<RenderCache.Page> second = start(() -> coalescer.render("", "index.html", () -> {
+            renderings.incrementAndGet();
+            return RenderCache.Page.ofText("<html>again</html>", "UTF-8", 0);
+        }));
+
+        // another page is not held up by the rendering in progress
+        RenderCache.Page other = RenderCache.Page.ofText("<html lang=\"fr\"/>", "UTF-8", 0);
+        assertSame(other, coalescer.render("fr", "index.html", () -> other));
+
+        release.countDown();
+        assertSame(page, first.get(10, TimeUnit.SECONDS));
+        assertSame(page, second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, renderings.get());
+    }
+
+    @Test
+    public void testFailureIsSharedAndNotKept() throws Exception {
+        FutureTask<RenderCache.Page> first = start(() -> coalescer.render("", "index.html", () -> {
+            awaitRelease();
+            throw new RendererException("broken");
+        }));
+        FutureTask<RenderCache.Page> second =
+                start(() -> coalescer.render("", "index.html", () -> RenderCache.Page.ofText("<html/>", "UTF-8", 0)));
+
+        release.countDown();
+        assertFailure(first);
+        assertFailure(second);
+
+        RenderCache.Page page = RenderCache.Page.ofText("<html/>", "UTF-8", 0);
+        assertSame(page, coalescer.render("", "index.html", () -> page));
+    }
+
+    /**
+     * Start a request in its own thread, and return once it waits, for the release or for another request.
+     */
+    private static FutureTask<RenderCache.Page> start(Callable<RenderCache.Page> request) throws InterruptedException {
+        FutureTask<RenderCache.Page> task = new FutureTask<>(request);
+        Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue("request should wait", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+        return task;
+    }
+
+    private void awaitRelease() throws RendererException {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            throw new RendererException("interrupted", e);
+        }
+    }
+
+    private static void assertFailure(FutureTask<RenderCache.Page> request) throws Exception {
+        try {
+            request.get(10, TimeUnit.SECONDS);
+            fail("rendering should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RendererException);
+            assertEquals("broken", e.getCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.run;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class SiteWatcherTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testNotifyChangesInNewDirectories() throws Exception {
+        File siteDirectory = temporaryFolder.newFolder("site");
+        BlockingQueue<Path> changes = new LinkedBlockingQueue<>();
+
+        try (SiteWatcher watcher =
+                new SiteWatcher(Collections.singletonList(siteDirectory), changes::add, new SystemStreamLog())) {
+            Path markdown = siteDirectory.toPath().resolve("markdown");
+            Files.createDirectory(markdown);
+            assertEquals(markdown, changes.poll(10, TimeUnit.SECONDS));
+
+            Path page = markdown.resolve("page.md");
+            Files.write(page, "# Page".getBytes("UTF-8"));
+            Path changed = changes.poll(10, TimeUnit.SECONDS);
+            while (changed != null && !changed.equals(page)) {
+                changed = changes.poll(10, TimeUnit.SECONDS);
+            }
+            assertNotNull("change in new directory not notified", changed);
+        }
+    }
+}
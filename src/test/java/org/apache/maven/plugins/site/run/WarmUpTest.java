@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.run;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.doxia.site.Body;
+import org.apache.maven.doxia.site.Menu;
+import org.apache.maven.doxia.site.MenuItem;
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.siterenderer.DocumentRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WarmUpTest {
+    @Test
+    public void testPrioritize() {
+        Map<String, DoxiaBean> i18nDoxiaContexts = new LinkedHashMap<>();
+        i18nDoxiaContexts.put("default", doxiaBean("./guide.html#install", "faq.html"));
+        i18nDoxiaContexts.put("fr", doxiaBean("sub/", "missing.html"));
+
+        List<String> pages = new ArrayList<>();
+        for (String[] page : WarmUp.prioritize(i18nDoxiaContexts)) {
+            pages.add(page[0] + '/' + page[1]);
+        }
+
+        assertEquals(
+                "[/index.html, /sub/index.html, fr/index.html, fr/sub/index.html, /guide.html, "
+                        + "/other.html, /zz.html, fr/other.html, fr/guide.html, fr/zz.html]",
+                pages.toString());
+        assertTrue(WarmUp.prioritize(new LinkedHashMap<>()).isEmpty());
+    }
+
+    private static DoxiaBean doxiaBean(String... menuLinks) {
+        Menu menu = new Menu();
+        for (String href : menuLinks) {
+            MenuItem item = new MenuItem();
+            item.setHref(href);
+            menu.addItem(item);
+        }
+        SiteModel siteModel = new SiteModel();
+        siteModel.setBody(new Body());
+        siteModel.getBody().addMenu(menu);
+        SiteRenderingContext context = new SiteRenderingContext();
+        context.setSiteModel(siteModel);
+
+        Map<String, DocumentRenderer> documents = new LinkedHashMap<>();
+        for (String path : new String[] {"other.html", "guide.html", "index.html", "zz.html", "sub/index.html"}) {
+            documents.put(path, null);
+        }
+        return new DoxiaBean(context, documents);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.stubs;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sizes of the synthetic projects of the scale tests, and the time and heap budgets they must stay within.
+ * <p>
+ * Sizes can be changed with the <code>scale.modules</code>, <code>scale.depth</code>, <code>scale.pages</code>,
+ * <code>scale.locales</code> and <code>scale.reports</code> system properties. Budgets are given per unit of work,
+ * and can be multiplied by the <code>scale.budgetFactor</code> system property on slow machines.
+ * </p>
+ */
+public final class ScaleBudget {
+    /**
+     * The number of modules, including the top project.
+     */
+    public static final int MODULES = Integer.getInteger("scale.modules", 200);
+
+    /**
+     * The length of the longest parent chain.
+     */
+    public static final int DEPTH = Integer.getInteger("scale.depth", 10);
+
+    /**
+     * The number of pages of each module, per locale.
+     */
+    public static final int PAGES = Integer.getInteger("scale.pages", 10);
+
+    /**
+     * The number of locales.
+     */
+    public static final int LOCALES = Integer.getInteger("scale.locales", 3);
+
+    /**
+     * The number of reports.
+     */
+    public static final int REPORTS = Integer.getInteger("scale.reports", 20);
+
+    private static final double BUDGET_FACTOR = Double.parseDouble(System.getProperty("scale.budgetFactor", "1"));
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private ScaleBudget() {
+        // no instances
+    }
+
+    /**
+     * Run a task, and check that it stays within its time budget and that its result stays within its heap budget.
+     *
+     * @param name the name of the task, for messages
+     * @param units the units of work done by the task, for example the number of pages
+     * @param millisPerUnit the time budget per unit of work
+     * @param kilobytesPerUnit the budget of heap retained by the result per unit of work
+     * @param task the task
+     * @return the result of the task
+     * @throws Exception if the task fails
+     */
+    public static <T> T run(String name, int units, double millisPerUnit, double kilobytesPerUnit, Callable<T> task)
+            throws Exception {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        T result = task.call();
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long kilobytes = Math.max(0, usedHeap() - before) / 1024;
+
+        System.out.printf(
+                "[scale] %s: %d unit(s) in %d ms (%.2f ms/unit), %d KiB retained (%.2f KiB/unit)%n",
+                name, units, millis, (double) millis / units, kilobytes, (double) kilobytes / units);
+
+        double millisBudget = units * millisPerUnit * BUDGET_FACTOR;
+        assertTrue(
+                name + " took " + millis + " ms, over the budget of " + (long) millisBudget + " ms",
+                millis <= millisBudget);
+        double kilobytesBudget = units * kilobytesPerUnit * BUDGET_FACTOR;
+        assertTrue(
+                name + " retained " + kilobytes + " KiB, over the budget of " + (long) kilobytesBudget + " KiB",
+                kilobytes <= kilobytesBudget);
+        return result;
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+}
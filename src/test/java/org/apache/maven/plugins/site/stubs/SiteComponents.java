@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.stubs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.doxia.Doxia;
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.siterenderer.RendererException;
+import org.apache.maven.doxia.siterenderer.SiteRenderer;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext;
+import org.apache.maven.doxia.siterenderer.SiteRenderingContext.SiteDirectory;
+import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.DefaultContainerConfiguration;
+import org.codehaus.plexus.DefaultPlexusContainer;
+import org.codehaus.plexus.PlexusConstants;
+import org.codehaus.plexus.PlexusContainerException;
+import org.codehaus.plexus.component.repository.exception.ComponentLookupException;
+import org.codehaus.plexus.i18n.I18N;
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * The real site rendering components used by the scale tests and benchmarks, looked up in a Plexus container, with
+ * the Fluido skin from the test class path.
+ */
+public class SiteComponents implements AutoCloseable {
+    private final DefaultPlexusContainer container;
+
+    private final SiteRenderer siteRenderer;
+
+    private final Doxia doxia;
+
+    private final I18N i18n;
+
+    private final Artifact skin;
+
+    public SiteComponents() throws PlexusContainerException, ComponentLookupException {
+        container = new DefaultPlexusContainer(new DefaultContainerConfiguration()
+                .setName("site-components")
+                .setClassPathScanning(PlexusConstants.SCANNING_INDEX)
+                .setAutoWiring(true));
+        siteRenderer = container.lookup(SiteRenderer.class);
+        doxia = container.lookup(Doxia.class);
+        i18n = container.lookup(I18N.class);
+        skin = findSkin();
+    }
+
+    public SiteRenderer getSiteRenderer() {
+        return siteRenderer;
+    }
+
+    public Doxia getDoxia() {
+        return doxia;
+    }
+
+    public I18N getI18n() {
+        return i18n;
+    }
+
+    /**
+     * Look up another component.
+     *
+     * @param role the role of the component
+     * @return the component
+     * @throws ComponentLookupException if there is no such component
+     */
+    public <T> T lookup(Class<T> role) throws ComponentLookupException {
+        return container.lookup(role);
+    }
+
+    /**
+     * Create the site rendering context of a locale of a synthetic site, as the site mojo would.
+     *
+     * @param site the synthetic site
+     * @param locale the locale
+     * @return the site rendering context
+     * @throws IOException if the skin cannot be read
+     * @throws RendererException if the skin cannot be read
+     */
+    public SiteRenderingContext createContext(SyntheticSite site, Locale locale) throws IOException, RendererException {
+        MavenProject project = new MavenProject();
+        project.setGroupId("org.apache.maven.plugins.site");
+        project.setArtifactId("synthetic");
+        project.setVersion("1.0");
+        project.setName("Synthetic Site");
+
+        SiteRenderingContext context = createContext(project, site.createSiteModel(), site.getSiteDirectory(), locale);
+        context.addSiteDirectory(new SiteDirectory(site.getSiteDirectory(locale), true));
+        context.addSiteLocales(site.getLocales());
+        return context;
+    }
+
+    /**
+     * Create the site rendering context of a project, without site directories.
+     *
+     * @param project the project
+     * @param siteModel the site model
+     * @param rootDirectory the root directory
+     * @param locale the locale
+     * @return the site rendering context
+     * @throws IOException if the skin cannot be read
+     * @throws RendererException if the skin cannot be read
+     */
+    public SiteRenderingContext createContext(
+            MavenProject project, SiteModel siteModel, File rootDirectory, Locale locale)
+            throws IOException, RendererException {
+        Map<String, Object> templateProperties = new HashMap<>();
+        templateProperties.put("project", project);
+        templateProperties.put("inputEncoding", "UTF-8");
+        templateProperties.put("outputEncoding", "UTF-8");
+
+        SiteRenderingContext context =
+                siteRenderer.createContextForSkin(skin, templateProperties, siteModel, project.getName(), locale);
+        context.setInputEncoding("UTF-8");
+        context.setOutputEncoding("UTF-8");
+        context.setRootDirectory(rootDirectory);
+        return context;
+    }
+
+    @Override
+    public void close() {
+        container.dispose();
+    }
+
+    /**
+     * Delete a directory created for a test or a benchmark.
+     *
+     * @param directory the directory
+     * @throws IOException if the directory cannot be deleted
+     */
+    public static void delete(File directory) throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    /**
+     * @return the Fluido skin jar of the class path, as a resolved artifact
+     */
+    private static Artifact findSkin() {
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            File file = new File(entry);
+            if (file.getName().startsWith("maven-fluido-skin-")
+                    && file.getName().endsWith(".jar")) {
+                String version = file.getParentFile().getName();
+                Artifact skin = new DefaultArtifact(
+                        "org.apache.maven.skins",
+                        "maven-fluido-skin",
+                        version,
+                        Artifact.SCOPE_RUNTIME,
+                        "jar",
+                        null,
+                        new DefaultArtifactHandler("jar"));
+                skin.setFile(file);
+                return skin;
+            }
+        }
+        throw new IllegalStateException("maven-fluido-skin not found on the class path");
+    }
+
+    /**
+     * @return the locales of a test or a benchmark with the given number of locales, the default locale first
+     */
+    public static List<Locale> locales(int count) {
+        Locale[] all = {SiteTool.DEFAULT_LOCALE, Locale.FRENCH, Locale.GERMAN, Locale.ITALIAN, Locale.JAPANESE};
+        return Arrays.asList(all).subList(0, Math.min(count, all.length));
+    }
+}
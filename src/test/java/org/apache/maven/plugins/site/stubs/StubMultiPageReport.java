@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.stubs;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+import org.apache.maven.doxia.sink.Sink;
+import org.apache.maven.doxia.sink.SinkFactory;
+import org.apache.maven.reporting.MavenMultiPageReport;
+import org.apache.maven.reporting.MavenReportException;
+
+/**
+ * A multi-page report: a main page with a table linking to the sub-pages, each sub-page with a table.
+ */
+public class StubMultiPageReport implements MavenMultiPageReport {
+    private final String outputName;
+
+    private final int subPages;
+
+    private final int rows;
+
+    private File reportOutputDirectory;
+
+    /**
+     * @param outputName the output name of the main page, without extension
+     * @param subPages the number of sub-pages
+     * @param rows the number of rows of the table of each sub-page
+     */
+    public StubMultiPageReport(String outputName, int subPages, int rows) {
+        this.outputName = outputName;
+        this.subPages = subPages;
+        this.rows = rows;
+    }
+
+    @Override
+    public void generate(Sink sink, SinkFactory sinkFactory, Locale locale) throws MavenReportException {
+        page(sink, outputName, subPages, outputName + "-page-");
+        for (int i = 0; i < subPages; i++) {
+            Sink subSink;
+            try {
+                subSink = sinkFactory.createSink(reportOutputDirectory, outputName + "-page-" + i + ".html");
+            } catch (IOException e) {
+                throw new MavenReportException("Cannot create sink of sub-page " + i, e);
+            }
+            page(subSink, "Sub-page " + i, rows, null);
+            close(subSink, i);
+        }
+    }
+
+    /**
+     * Close the sink of a sub-page once generated.
+     *
+     * @param subSink the sink of the sub-page
+     * @param subPage the index of the sub-page
+     */
+    protected void close(Sink subSink, int subPage) {
+        subSink.close();
+    }
+
+    @Override
+    public void generate(Sink sink, Locale locale) {
+        page(sink, outputName, subPages, outputName + "-page-");
+    }
+
+    private static void page(Sink sink, String title, int rows, String linkPrefix) {
+        sink.head();
+        sink.title();
+        sink.text(title);
+        sink.title_();
+        sink.head_();
+
+        sink.body();
+        sink.section1();
+        sink.sectionTitle1();
+        sink.text(title);
+        sink.sectionTitle1_();
+        sink.table();
+        sink.tableRows();
+        sink.tableRow();
+        sink.tableHeaderCell();
+        sink.text("Name");
+        sink.tableHeaderCell_();
+        sink.tableHeaderCell();
+        sink.text("Description");
+        sink.tableHeaderCell_();
+        sink.tableRow_();
+        for (int row = 0; row < rows; row++) {
+            sink.tableRow();
+            sink.tableCell();
+            if (linkPrefix == null) {
+                sink.text("row " + row);
+            } else {
+                sink.link(linkPrefix + row + ".html");
+                sink.text("Sub-page " + row);
+                sink.link_();
+            }
+            sink.tableCell_();
+            sink.tableCell();
+            sink.text("Description of row " + row + " with some text to render in the cell");
+            sink.tableCell_();
+            sink.tableRow_();
+        }
+        sink.tableRows_();
+        sink.table_();
+        sink.section1_();
+        sink.body_();
+    }
+
+    @Override
+    public String getOutputName() {
+        return outputName;
+    }
+
+    @Override
+    public String getCategoryName() {
+        return CATEGORY_PROJECT_REPORTS;
+    }
+
+    @Override
+    public String getName(Locale locale) {
+        return outputName;
+    }
+
+    @Override
+    public String getDescription(Locale locale) {
+        return "Multi-page report " + outputName;
+    }
+
+    @Override
+    public void setReportOutputDirectory(File reportOutputDirectory) {
+        this.reportOutputDirectory = reportOutputDirectory;
+    }
+
+    @Override
+    public File getReportOutputDirectory() {
+        return reportOutputDirectory;
+    }
+
+    @Override
+    public boolean isExternalReport() {
+        return false;
+    }
+
+    @Override
+    public boolean canGenerateReport() {
+        return true;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.stubs;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.maven.doxia.site.Banner;
+import org.apache.maven.doxia.site.Menu;
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.site.io.xpp3.SiteXpp3Writer;
+import org.apache.maven.doxia.tools.SiteTool;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Parent;
+import org.apache.maven.model.io.xpp3.MavenXpp3Writer;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.reporting.MavenReport;
+
+/**
+ * Generator of synthetic multi-module projects: a reactor of modules nested in their parent directory, with a deep
+ * parent chain, each module with a POM, a site descriptor per locale inheriting the parent menus, and the pages of a
+ * {@link SyntheticSite}. The projects are also created in memory, with their parents, as Maven would build them.
+ */
+public class SyntheticReactor {
+    private static final String GROUP_ID = "org.apache.maven.plugins.site.synthetic";
+
+    private static final String URL = "https://maven.apache.org/synthetic/";
+
+    /**
+     * The name of the left banner of the top project.
+     */
+    public static final String BANNER = "Synthetic Reactor";
+
+    private final List<MavenProject> projects = new ArrayList<>();
+
+    private final List<SyntheticSite> sites = new ArrayList<>();
+
+    private final List<Locale> locales;
+
+    private SyntheticReactor(List<Locale> locales) {
+        this.locales = locales;
+    }
+
+    /**
+     * Generate a reactor.
+     * <p>
+     * The first <code>depth</code> modules form a chain, each module being the parent of the next one, and the other
+     * modules are children of the modules of the chain in turn, so that modules are found at every depth.
+     * </p>
+     *
+     * @param basedir the base directory of the top project
+     * @param modules the number of modules, including the top project
+     * @param depth the length of the longest parent chain
+     * @param pages the number of pages of each module, per locale
+     * @param locales the locales, the first one being the default locale
+     * @return the generated reactor
+     * @throws IOException if a file cannot be written
+     */
+    public static SyntheticReactor generate(File basedir, int modules, int depth, int pages, List<Locale> locales)
+            throws IOException {
+        SyntheticReactor reactor = new SyntheticReactor(locales);
+        for (int i = 0; i < modules; i++) {
+            MavenProject parent = i == 0 ? null : reactor.projects.get(parentIndex(i, depth));
+            File moduleDirectory = parent == null ? basedir : new File(parent.getBasedir(), "module-" + i);
+            reactor.projects.add(createProject(i, parent, moduleDirectory));
+            reactor.sites.add(SyntheticSite.generate(new File(moduleDirectory, "src/site"), pages, pages, 2, locales));
+        }
+
+        // once the modules of every parent are known
+        for (int i = 0; i < modules; i++) {
+            MavenProject project = reactor.projects.get(i);
+            try (Writer writer = Files.newBufferedWriter(project.getFile().toPath(), StandardCharsets.UTF_8)) {
+                new MavenXpp3Writer().write(writer, project.getModel());
+            }
+            reactor.writeSiteDescriptors(reactor.sites.get(i), i == 0);
+        }
+        return reactor;
+    }
+
+    /**
+     * Generate a reactor in the default locale only.
+     */
+    public static SyntheticReactor generate(File basedir, int modules, int depth, int pages) throws IOException {
+        return generate(basedir, modules, depth, pages, Collections.singletonList(SiteTool.DEFAULT_LOCALE));
+    }
+
+    /**
+     * @param module the index of a module, not the top project
+     * @param depth the length of the longest parent chain
+     * @return the index of the parent of the module
+     */
+    static int parentIndex(int module, int depth) {
+        return module <= depth ? module - 1 : (module - 1) % depth;
+    }
+
+    private static MavenProject createProject(int i, MavenProject parent, File moduleDirectory) {
+        Model model = new Model();
+        model.setModelVersion("4.0.0");
+        model.setGroupId(GROUP_ID);
+        model.setArtifactId("module-" + i);
+        model.setVersion("1.0");
+        model.setName("Module " + i);
+        model.setPackaging("jar");
+        MavenProject project = new MavenProject(model);
+        project.setFile(new File(moduleDirectory, "pom.xml"));
+
+        if (parent == null) {
+            model.setUrl(URL);
+        } else {
+            Parent modelParent = new Parent();
+            modelParent.setGroupId(GROUP_ID);
+            modelParent.setArtifactId(parent.getArtifactId());
+            modelParent.setVersion(parent.getVersion());
+            model.setParent(modelParent);
+            model.setUrl(parent.getUrl() + model.getArtifactId() + '/');
+            project.setParent(parent);
+
+            parent.getModel().setPackaging("pom");
+            parent.getModel().addModule(model.getArtifactId());
+        }
+        return project;
+    }
+
+    private void writeSiteDescriptors(SyntheticSite site, boolean top) throws IOException {
+        for (Locale locale : locales) {
+            SiteModel siteModel = site.createSiteModel();
+            if (top) {
+                // inherited by every module
+                Banner banner = new Banner();
+                banner.setName(BANNER);
+                banner.setHref(URL);
+                siteModel.setBannerLeft(banner);
+            }
+            siteModel.getBody().getMenus().add(0, menuRef("parent"));
+            siteModel.getBody().addMenu(menuRef("modules"));
+            siteModel.getBody().addMenu(menuRef("reports"));
+
+            String name = locale.equals(locales.get(0)) ? "site.xml" : "site_" + locale + ".xml";
+            File siteDescriptor = new File(site.getSiteDirectory(), name);
+            try (Writer writer = Files.newBufferedWriter(siteDescriptor.toPath(), StandardCharsets.UTF_8)) {
+                new SiteXpp3Writer().write(writer, siteModel);
+            }
+        }
+    }
+
+    private static Menu menuRef(String ref) {
+        Menu menu = new Menu();
+        menu.setRef(ref);
+        return menu;
+    }
+
+    /**
+     * Create multi-page reports, each with a few sub-pages.
+     *
+     * @param count the number of reports
+     * @return the reports, with <code>report-&lt;n&gt;</code> output names
+     */
+    public static List<MavenReport> createReports(int count) {
+        List<MavenReport> reports = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            reports.add(new StubMultiPageReport("report-" + i, 2, 50));
+        }
+        return reports;
+    }
+
+    /**
+     * @return the projects, the top project first and every parent before its modules
+     */
+    public List<MavenProject> getProjects() {
+        return projects;
+    }
+
+    /**
+     * @param project a project of the reactor
+     * @return the site of the project
+     */
+    public SyntheticSite getSite(MavenProject project) {
+        return sites.get(projects.indexOf(project));
+    }
+
+    public List<Locale> getLocales() {
+        return locales;
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.site.stubs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.maven.doxia.site.Body;
+import org.apache.maven.doxia.site.Menu;
+import org.apache.maven.doxia.site.MenuItem;
+import org.apache.maven.doxia.site.SiteModel;
+import org.apache.maven.doxia.tools.SiteTool;
+
+/**
+ * Generator of synthetic site sources: pages in Markdown, APT and Xdoc with headings, paragraphs, lists, tables,
+ * code and links to other pages, for every locale, and a site model with menus linking to the pages. Used to
+ * measure rendering on sites of any size.
+ */
+public class SyntheticSite {
+    private static final String[][] FORMATS = {{"markdown", "md"}, {"apt", "apt"}, {"xdoc", "xml"}};
+
+    private final File siteDirectory;
+
+    private final int pages;
+
+    private final int menuItems;
+
+    private final List<Locale> locales;
+
+    private SyntheticSite(File siteDirectory, int pages, int menuItems, List<Locale> locales) {
+        this.siteDirectory = siteDirectory;
+        this.pages = pages;
+        this.menuItems = menuItems;
+        this.locales = locales;
+    }
+
+    /**
+     * Generate the sources of a site.
+     *
+     * @param siteDirectory the site directory to write sources to, as <code>src/site</code>
+     * @param pages the number of pages per locale, cycling through Markdown, APT and Xdoc
+     * @param menuItems the number of menu items, split in menus of up to 10 items
+     * @param sections the number of sections of each page
+     * @param locales the locales, the first one being the default locale
+     * @return the generated site
+     * @throws IOException if a source cannot be written
+     */
+    public static SyntheticSite generate(
+            File siteDirectory, int pages, int menuItems, int sections, List<Locale> locales) throws IOException {
+        SyntheticSite site = new SyntheticSite(siteDirectory, pages, menuItems, locales);
+        for (int i = 0; i < locales.size(); i++) {
+            File localeDirectory = i == 0
+                    ? siteDirectory
+                    : new File(siteDirectory, locales.get(i).toString());
+            for (int page = 0; page < pages; page++) {
+                String[] format = FORMATS[page % FORMATS.length];
+                File source = new File(localeDirectory, format[0] + "/page-" + page + '.' + format[1]);
+                source.getParentFile().mkdirs();
+                String content = site.content(format[0], page, sections, locales.get(i));
+                Files.write(source.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return site;
+    }
+
+    /**
+     * Generate the sources of a site in the default locale only.
+     */
+    public static SyntheticSite generate(File siteDirectory, int pages, int menuItems, int sections)
+            throws IOException {
+        return generate(siteDirectory, pages, menuItems, sections, Collections.singletonList(SiteTool.DEFAULT_LOCALE));
+    }
+
+    public File getSiteDirectory() {
+        return siteDirectory;
+    }
+
+    public int getPages() {
+        return pages;
+    }
+
+    public List<Locale> getLocales() {
+        return locales;
+    }
+
+    /**
+     * @param locale a locale of the site
+     * @return the directory of the sources of the locale
+     */
+    public File getSiteDirectory(Locale locale) {
+        return locale.equals(locales.get(0)) ? siteDirectory : new File(siteDirectory, locale.toString());
+    }
+
+    /**
+     * Create a site model with menus of up to 10 items, each item linking to a page, every other item with a
+     * nested item.
+     *
+     * @return a new site model
+     */
+    public SiteModel createSiteModel() {
+        SiteModel siteModel = new SiteModel();
+        siteModel.setBody(new Body());
+        Menu menu = null;
+        for (int item = 0; item < menuItems; item++) {
+            if (item % 10 == 0) {
+                menu = new Menu();
+                menu.setName("Menu " + (item / 10));
+                siteModel.getBody().addMenu(menu);
+            }
+            MenuItem menuItem = menuItem(item);
+            if (item % 2 == 1) {
+                menuItem.addItem(menuItem(item + menuItems));
+            }
+            menu.addItem(menuItem);
+        }
+        return siteModel;
+    }
+
+    private MenuItem menuItem(int item) {
+        MenuItem menuItem = new MenuItem();
+        menuItem.setName("Item " + item);
+        menuItem.setHref("page-" + (item % Math.max(1, pages)) + ".html");
+        return menuItem;
+    }
+
+    private String content(String format, int page, int sections, Locale locale) {
+        StringBuilder content = new StringBuilder(2048 * (sections + 1));
+        String title = "Page " + page + (locale.toString().isEmpty() ? "" : " (" + locale + ')');
+        String next = "page-" + ((page + 1) % pages) + ".html";
+
+        switch (format) {
+            case "markdown":
+                content.append("# ").append(title).append("\n\n");
+                for (int section = 0; section < sections; section++) {
+                    content.append("## Section ").append(section).append("\n\n");
+                    content.append(paragraph(page, section))
+                            .append(" See [the next page](")
+                            .append(next)
+                            .append(").\n\n");
+                    for (int item = 0; item < 5; item++) {
+                        content.append("* item ").append(item).append(" with *emphasis* and `code`\n");
+                    }
+                    content.append("\n| Name | Value |\n| --- | --- |\n");
+                    for (int row = 0; row < 5; row++) {
+                        content.append("| key")
+                                .append(row)
+                                .append(" | value ")
+                                .append(row)
+                                .append(" |\n");
+                    }
+                    content.append("\n```\nint section = ").append(section).append(";\n```\n\n");
+                }
+                break;
+            case "apt":
+                content.append(" -----\n ")
+                        .append(title)
+                        .append("\n -----\n\n")
+                        .append(title)
+                        .append("\n\n");
+                for (int section = 0; section < sections; section++) {
+                    content.append("* Section ").append(section).append("\n\n");
+                    content.append("  ")
+                            .append(paragraph(page, section))
+                            .append(" See {{{./")
+                            .append(next)
+                            .append("}the next page}}.\n\n");
+                    for (int item = 0; item < 5; item++) {
+                        content.append("  * item ").append(item).append(" with <emphasis> and <<<code>>>\n\n");
+                    }
+                    content.append("  []\n\n*----+------+\n|| Name || Value |\n*----+------+\n");
+                    for (int row = 0; row < 5; row++) {
+                        content.append("| key")
+                                .append(row)
+                                .append(" | value ")
+                                .append(row)
+                                .append(" |\n");
+                    }
+                    content.append("*----+------+\n\n+----\nint section = ")
+                            .append(section)
+                            .append(";\n+----\n\n");
+                }
+                break;
+            default:
+                content.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<document>\n  <properties><title>")
+                        .append(title)
+                        .append("</title></properties>\n  <body>\n");
+                for (int section = 0; section < sections; section++) {
+                    content.append("    <section name=\"Section ")
+                            .append(section)
+                            .append("\">\n");
+                    content.append("      <p>")
+                            .append(paragraph(page, section))
+                            .append(" See <a href=\"")
+                            .append(next)
+                            .append("\">the next page</a>.</p>\n      <ul>\n");
+                    for (int item = 0; item < 5; item++) {
+                        content.append("        <li>item ")
+                                .append(item)
+                                .append(" with <em>emphasis</em> and <code>code</code></li>\n");
+                    }
+                    content.append("      </ul>\n      <table>\n        <tr><th>Name</th><th>Value</th></tr>\n");
+                    for (int row = 0; row < 5; row++) {
+                        content.append("        <tr><td>key")
+                                .append(row)
+                                .append("</td><td>value ")
+                                .append(row)
+                                .append("</td></tr>\n");
+                    }
+                    content.append("      </table>\n      <source>int section = ")
+                            .append(section)
+                            .append(";</source>\n    </section>\n");
+                }
+                content.append("  </body>\n</document>\n");
+        }
+        return content.toString();
+    }
+
+    private static String paragraph(int page, int section) {
+        StringBuilder paragraph = new StringBuilder();
+        for (int sentence = 0; sentence < 8; sentence++) {
+            paragraph
+                    .append("Sentence ")
+                    .append(sentence)
+                    .append(" of section ")
+                    .append(section)
+                    .append(" on page ")
+                    .append(page)
+                    .append(" describes the project in some detail. ");
+        }
+        return paragraph.toString().trim();
+    }
+
+    /**
+     * @return the output names of the pages of a locale
+     */
+    public List<String> getOutputNames() {
+        List<String> outputNames = new ArrayList<>(pages);
+        for (int page = 0; page < pages; page++) {
+            outputNames.add("page-" + page + ".html");
+        }
+        return outputNames;
+    }
+}